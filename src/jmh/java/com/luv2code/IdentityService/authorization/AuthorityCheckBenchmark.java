@@ -0,0 +1,107 @@
+package com.luv2code.IdentityService.authorization;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.method.PreAuthorizeAuthorizationManager;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
+import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
+import org.springframework.security.util.SimpleMethodInvocation;
+
+import java.time.Instant;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of turning the scope claim into authorities and of one admin check, for a user
+ * with many permissions: JwtAuthenticationConverter plus {@code @PreAuthorize("hasRole('ADMIN')")}
+ * against IndexedJwtAuthenticationConverter plus {@code @HasAuthority("ROLE_ADMIN")}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AuthorityCheckBenchmark {
+
+    public static class Target {
+        @PreAuthorize("hasRole('ADMIN')")
+        public void spel() {
+        }
+
+        @HasAuthority("ROLE_ADMIN")
+        public void bitset() {
+        }
+    }
+
+    @Param({"20", "500"})
+    int permissions;
+
+    Jwt jwt;
+
+    JwtAuthenticationConverter jwtAuthenticationConverter;
+    PreAuthorizeAuthorizationManager preAuthorizeManager;
+    MethodInvocation spelInvocation;
+    AbstractAuthenticationToken spelAuthentication;
+
+    IndexedJwtAuthenticationConverter indexedConverter;
+    HasAuthorityAuthorizationManager hasAuthorityManager;
+    MethodInvocation bitsetInvocation;
+    AbstractAuthenticationToken indexedAuthentication;
+
+    @Setup(Level.Trial)
+    public void setup() throws NoSuchMethodException {
+        StringJoiner scope = new StringJoiner(" ");
+        scope.add("ROLE_USER");
+        for (int p = 0; p < permissions; p++)
+            scope.add("PERMISSION_" + p);
+        scope.add("ROLE_ADMIN");
+
+        jwt = Jwt.withTokenValue("token")
+                .header("alg", "HS512")
+                .subject("john")
+                .claim("scope", scope.toString())
+                .issuedAt(Instant.now())
+                .expiresAt(Instant.now().plusSeconds(3600))
+                .build();
+
+        // the converter SecurityConfig used before
+        var grantedAuthoritiesConverter = new JwtGrantedAuthoritiesConverter();
+        grantedAuthoritiesConverter.setAuthorityPrefix("");
+        jwtAuthenticationConverter = new JwtAuthenticationConverter();
+        jwtAuthenticationConverter.setJwtGrantedAuthoritiesConverter(grantedAuthoritiesConverter);
+        preAuthorizeManager = new PreAuthorizeAuthorizationManager();
+        spelInvocation = new SimpleMethodInvocation(new Target(), Target.class.getMethod("spel"));
+        spelAuthentication = jwtAuthenticationConverter.convert(jwt);
+
+        var authorityIndex = new AuthorityIndex();
+        indexedConverter = new IndexedJwtAuthenticationConverter(authorityIndex, 10_000);
+        hasAuthorityManager = new HasAuthorityAuthorizationManager(authorityIndex);
+        bitsetInvocation = new SimpleMethodInvocation(new Target(), Target.class.getMethod("bitset"));
+        indexedAuthentication = indexedConverter.convert(jwt);
+    }
+
+    @Benchmark
+    public AbstractAuthenticationToken convertSpel() {
+        return jwtAuthenticationConverter.convert(jwt);
+    }
+
+    @Benchmark
+    public AbstractAuthenticationToken convertIndexed() {
+        return indexedConverter.convert(jwt);
+    }
+
+    @Benchmark
+    public AuthorizationDecision checkSpel() {
+        return preAuthorizeManager.check(() -> spelAuthentication, spelInvocation);
+    }
+
+    @Benchmark
+    public AuthorizationDecision checkBitset() {
+        return hasAuthorityManager.check(() -> indexedAuthentication, bitsetInvocation);
+    }
+}
@@ -0,0 +1,46 @@
+package com.luv2code.IdentityService.benchmark;
+
+import com.luv2code.IdentityService.entity.Permission;
+import com.luv2code.IdentityService.entity.Role;
+import com.luv2code.IdentityService.entity.User;
+import com.luv2code.IdentityService.identifier.UuidV7;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Users with a configurable role and permission fan-out, built in memory.
+ */
+public final class BenchmarkData {
+
+    private BenchmarkData() {}
+
+    public static User user(String username, int roles, int permissionsPerRole) {
+        Set<Role> userRoles = new HashSet<>();
+        for (int r = 0; r < roles; r++) {
+            Set<Permission> permissions = new HashSet<>();
+            for (int p = 0; p < permissionsPerRole; p++)
+                permissions.add(Permission.builder()
+                        .name("PERMISSION_" + r + "_" + p)
+                        .description("Permission " + p + " of role " + r)
+                        .build());
+
+            userRoles.add(Role.builder()
+                    .name("ROLE_" + r)
+                    .description("Role " + r)
+                    .permissions(permissions)
+                    .build());
+        }
+
+        return User.builder()
+                .id(UuidV7.randomUuid())
+                .username(username)
+                .password("$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z3ByH3LBUZSY1T/rlzs2Re1i")
+                .firstname("John")
+                .lastname("Doe")
+                .dob(LocalDate.of(1990, 1, 1))
+                .roles(userRoles)
+                .build();
+    }
+}
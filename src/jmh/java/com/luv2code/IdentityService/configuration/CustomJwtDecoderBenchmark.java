@@ -0,0 +1,96 @@
+package com.luv2code.IdentityService.configuration;
+
+import com.luv2code.IdentityService.benchmark.BenchmarkData;
+import com.luv2code.IdentityService.cache.BloomFilter;
+import com.luv2code.IdentityService.enums.ScopeFormat;
+import com.luv2code.IdentityService.service.AuthenticationServiceFixture;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.text.ParseException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * What the resource server pays per authenticated request to turn the bearer token into a Jwt, for
+ * full tokens and for compact ones whose role names are expanded on decode. {@code parse} isolates
+ * the Nimbus parse of the header and claims; the token size is printed at setup. {@code decodeTwoPass}
+ * is the decoder as it was before it reused the verified SignedJWT: verify, then hand the token to a
+ * NimbusJwtDecoder that parses and verifies it again.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CustomJwtDecoderBenchmark {
+
+    @Param({"1", "3"})
+    int roles;
+
+    @Param({"5", "25"})
+    int permissionsPerRole;
+
+    @Param({"FULL", "ROLES"})
+    ScopeFormat scopeFormat;
+
+    AuthenticationServiceFixture fixture;
+    CustomJwtDecoder customJwtDecoder;
+    String token;
+    NimbusJwtDecoder nimbusJwtDecoder;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        fixture = new AuthenticationServiceFixture();
+        ReflectionTestUtils.setField(fixture.revokedTokenFilter, "current", new BloomFilter(1_000_000, 0.001));
+
+        customJwtDecoder = new CustomJwtDecoder();
+        ReflectionTestUtils.setField(customJwtDecoder, "authenticationService", fixture.authenticationService);
+        ReflectionTestUtils.setField(customJwtDecoder, "roleScopeExpander", fixture.roleScopeExpander);
+
+        // a token minted by the service itself, so the scope claim has the real fan-out
+        var user = BenchmarkData.user("john", roles, permissionsPerRole);
+        when(fixture.roleRepository.findAllById(any())).thenReturn(List.copyOf(user.getRoles()));
+        ReflectionTestUtils.setField(fixture.authenticationService, "SCOPE_FORMAT", scopeFormat);
+        token = ReflectionTestUtils.invokeMethod(fixture.authenticationService, "generateToken", user,
+                fixture.roleScopeCache.getVersion());
+        nimbusJwtDecoder = NimbusJwtDecoder
+                .withSecretKey(new SecretKeySpec(AuthenticationServiceFixture.SIGNER_KEY.getBytes(), "HS512"))
+                .macAlgorithm(MacAlgorithm.HS512)
+                .build();
+        System.out.printf("%n%s token, %d roles x %d permissions: %d bytes%n",
+                scopeFormat, roles, permissionsPerRole, token.length());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ReflectionTestUtils.invokeMethod(fixture.passwordHashingService, "shutdown");
+    }
+
+    @Benchmark
+    public Jwt decode() {
+        return customJwtDecoder.decode(token);
+    }
+
+    @Benchmark
+    public Jwt decodeTwoPass() throws JOSEException, ParseException {
+        fixture.authenticationService.verifyToken(token, false);
+        return nimbusJwtDecoder.decode(token);
+    }
+
+    @Benchmark
+    public JWTClaimsSet parse() throws ParseException {
+        return SignedJWT.parse(token).getJWTClaimsSet();
+    }
+}
@@ -0,0 +1,127 @@
+package com.luv2code.IdentityService.identifier;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Insert throughput and index footprint of the user key before and after the switch to UUIDv7:
+ * random UUIDv4 strings in VARCHAR(255) against UUIDv7 in BINARY(16), each with the username
+ * secondary index and the user_roles join table. The score is rows per second; table and index
+ * sizes are printed at the end of each trial. Needs a scratch MySQL schema, e.g.
+ * <pre>
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="UserIdInsertMySqlBenchmark -p preloadRows=2000000
+ *     -jvmArgsAppend -Djmh.mysql.url=jdbc:mysql://localhost:3306/bench?user=root&amp;password=root&amp;rewriteBatchedStatements=true"
+ * </pre>
+ * Random keys only start to hurt once the index outgrows the buffer pool, size preloadRows accordingly.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserIdInsertMySqlBenchmark {
+
+    static final int BATCH_SIZE = 1000;
+
+    public enum KeyLayout {
+        UUID_V4_VARCHAR("VARCHAR(255)"),
+        UUID_V7_BINARY16("BINARY(16)");
+
+        final String columnType;
+
+        KeyLayout(String columnType) {
+            this.columnType = columnType;
+        }
+    }
+
+    @Param
+    KeyLayout layout;
+
+    @Param({"100000"})
+    int preloadRows;
+
+    Connection connection;
+    PreparedStatement insertUser;
+    PreparedStatement insertUserRole;
+    long sequence;
+
+    @Setup(Level.Trial)
+    public void setup() throws SQLException {
+        String url = System.getProperty("jmh.mysql.url");
+        if (url == null)
+            throw new IllegalStateException("Set -Djmh.mysql.url to a scratch MySQL schema");
+
+        connection = DriverManager.getConnection(url);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS bench_user_roles");
+            statement.execute("DROP TABLE IF EXISTS bench_user");
+            statement.execute("CREATE TABLE bench_user (id " + layout.columnType + " NOT NULL PRIMARY KEY, "
+                    + "username VARCHAR(255) NOT NULL, password VARCHAR(255), KEY idx_bench_user_username (username))");
+            statement.execute("CREATE TABLE bench_user_roles (user_id " + layout.columnType + " NOT NULL, "
+                    + "roles_name VARCHAR(255) NOT NULL, PRIMARY KEY (user_id, roles_name))");
+        }
+
+        connection.setAutoCommit(false);
+        insertUser = connection.prepareStatement("INSERT INTO bench_user (id, username, password) VALUES (?, ?, ?)");
+        insertUserRole = connection.prepareStatement("INSERT INTO bench_user_roles (user_id, roles_name) VALUES (?, ?)");
+
+        for (int loaded = 0; loaded < preloadRows; loaded += BATCH_SIZE)
+            insertBatch();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        connection.setAutoCommit(true);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ANALYZE TABLE bench_user, bench_user_roles");
+            // information_schema caches table statistics for a day by default
+            statement.execute("SET SESSION information_schema_stats_expiry = 0");
+
+            try (var rs = statement.executeQuery("SELECT table_name, table_rows, data_length, index_length "
+                    + "FROM information_schema.TABLES WHERE table_schema = DATABASE() "
+                    + "AND table_name IN ('bench_user', 'bench_user_roles')")) {
+                while (rs.next())
+                    System.out.printf("%n%s %s: ~%d rows, data %d KiB, secondary indexes %d KiB%n",
+                            layout, rs.getString(1), rs.getLong(2), rs.getLong(3) / 1024, rs.getLong(4) / 1024);
+            }
+        }
+        connection.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void insertUsers() throws SQLException {
+        insertBatch();
+    }
+
+    // one transaction per batch, as the bulk provisioning endpoint does
+    private void insertBatch() throws SQLException {
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            Object id = switch (layout) {
+                case UUID_V4_VARCHAR -> UUID.randomUUID().toString();
+                case UUID_V7_BINARY16 -> UuidV7.toBytes(UuidV7.randomUuid());
+            };
+            String username = "user" + sequence++;
+
+            insertUser.setObject(1, id);
+            insertUser.setString(2, username);
+            insertUser.setString(3, "$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z3ByH3LBUZSY1T/rlzs2Re1i");
+            insertUser.addBatch();
+
+            insertUserRole.setObject(1, id);
+            insertUserRole.setString(2, "USER");
+            insertUserRole.addBatch();
+        }
+        insertUser.executeBatch();
+        insertUserRole.executeBatch();
+        connection.commit();
+    }
+}
@@ -0,0 +1,52 @@
+package com.luv2code.IdentityService.mapper;
+
+import com.luv2code.IdentityService.benchmark.BenchmarkData;
+import com.luv2code.IdentityService.dto.response.UserResponse;
+import com.luv2code.IdentityService.entity.User;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserMapperBenchmark {
+
+    // one page of GET /users at the default size
+    static final int PAGE_SIZE = 50;
+
+    @Param({"1", "3"})
+    int roles;
+
+    @Param({"5", "25"})
+    int permissionsPerRole;
+
+    UserMapper userMapper;
+    User user;
+    List<User> page;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        userMapper = new UserMapperImpl();
+
+        user = BenchmarkData.user("john", roles, permissionsPerRole);
+        page = new ArrayList<>(PAGE_SIZE);
+        for (int i = 0; i < PAGE_SIZE; i++)
+            page.add(BenchmarkData.user("user" + i, roles, permissionsPerRole));
+    }
+
+    @Benchmark
+    public UserResponse toUserResponse() {
+        return userMapper.toUserResponse(user);
+    }
+
+    @Benchmark
+    public List<UserResponse> toListUserResponse() {
+        return userMapper.toListUserResponse(page);
+    }
+}
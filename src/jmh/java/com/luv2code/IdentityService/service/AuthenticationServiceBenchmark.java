@@ -0,0 +1,81 @@
+package com.luv2code.IdentityService.service;
+
+import com.luv2code.IdentityService.benchmark.BenchmarkData;
+import com.luv2code.IdentityService.cache.BloomFilter;
+import com.luv2code.IdentityService.entity.User;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jwt.SignedJWT;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.text.ParseException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token minting and verification on the real AuthenticationService, HS512, repositories mocked
+ * out. The revocation filter is loaded (empty), as after startup, so no lookup reaches a mock.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AuthenticationServiceBenchmark {
+
+    @Param({"1", "3"})
+    int roles;
+
+    @Param({"5", "25"})
+    int permissionsPerRole;
+
+    AuthenticationServiceFixture fixture;
+    AuthenticationService authenticationService;
+    User user;
+    String token;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        fixture = new AuthenticationServiceFixture();
+        ReflectionTestUtils.setField(fixture.revokedTokenFilter, "current", new BloomFilter(1_000_000, 0.001));
+        authenticationService = fixture.authenticationService;
+
+        user = BenchmarkData.user("john", roles, permissionsPerRole);
+        token = authenticationService.generateToken(user, fixture.roleScopeCache.getVersion());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.passwordHashingService.shutdown();
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return authenticationService.generateToken(user, fixture.roleScopeCache.getVersion());
+    }
+
+    // role fragments served from RoleScopeCache, the steady state
+    @Benchmark
+    public String buildScope() {
+        return authenticationService.buildScope(user, fixture.roleScopeCache.getVersion());
+    }
+
+    // every fragment rebuilt, the cost right after a role or permission change
+    @Benchmark
+    public String buildScope_afterInvalidation() {
+        fixture.roleScopeCache.invalidateAll();
+        return authenticationService.buildScope(user, fixture.roleScopeCache.getVersion());
+    }
+
+    // repeat presentation of a token, answered by TokenVerificationCache
+    @Benchmark
+    public SignedJWT verifyToken_cached() throws JOSEException, ParseException {
+        return authenticationService.verifyToken(token, false);
+    }
+
+    // parse, HMAC check, expiry and revocation filter; the refresh path skips the cache
+    @Benchmark
+    public SignedJWT verifyToken_full() throws JOSEException, ParseException {
+        return authenticationService.verifyToken(token, true);
+    }
+}
@@ -0,0 +1,70 @@
+package com.luv2code.IdentityService.loadtest;
+
+import com.luv2code.IdentityService.constant.PredefinedRole;
+import com.luv2code.IdentityService.identifier.UuidV7;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes the data set straight through JDBC batches. Every user shares one bcrypt hash (cost 10, as
+ * in SecurityConfig) so seeding 100k users takes seconds while each login still pays a real hash.
+ */
+@Slf4j
+class DataSeeder {
+
+    static final int BATCH_SIZE = 1000;
+
+    final JdbcTemplate jdbcTemplate;
+
+    DataSeeder(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    void seed(int users, int roles, int permissions, int rolesPerUser, int permissionsPerRole, String password) {
+        long started = System.nanoTime();
+
+        List<Object[]> permissionRows = new ArrayList<>(permissions);
+        for (int p = 0; p < permissions; p++)
+            permissionRows.add(new Object[]{"PERMISSION_" + p, "Seeded permission " + p});
+        jdbcTemplate.batchUpdate("INSERT INTO permission (name, description) VALUES (?, ?)", permissionRows);
+
+        // role 0 is USER, the role every self-registered user gets
+        List<String> roleNames = new ArrayList<>(roles);
+        for (int r = 0; r < roles; r++)
+            roleNames.add(r == 0 ? PredefinedRole.USER_ROLE : "ROLE_" + r);
+        jdbcTemplate.batchUpdate("INSERT INTO role (name, description) VALUES (?, ?)",
+                roleNames.stream().map(name -> new Object[]{name, "Seeded role " + name}).toList());
+
+        List<Object[]> rolePermissionRows = new ArrayList<>();
+        for (int r = 0; r < roles; r++)
+            for (int p = 0; p < Math.min(permissionsPerRole, permissions); p++)
+                rolePermissionRows.add(new Object[]{roleNames.get(r), "PERMISSION_" + ((r * permissionsPerRole + p) % permissions)});
+        jdbcTemplate.batchUpdate("INSERT INTO role_permissions (role_name, permissions_name) VALUES (?, ?)",
+                rolePermissionRows);
+
+        String passwordHash = new BCryptPasswordEncoder(10).encode(password);
+        List<Object[]> userRows = new ArrayList<>(BATCH_SIZE);
+        List<Object[]> userRoleRows = new ArrayList<>(BATCH_SIZE * rolesPerUser);
+        for (int u = 0; u < users; u++) {
+            byte[] id = UuidV7.toBytes(UuidV7.randomUuid());
+            userRows.add(new Object[]{id, "user" + u, passwordHash, "First" + u, "Last" + u});
+            for (int r = 0; r < Math.min(rolesPerUser, roles); r++)
+                userRoleRows.add(new Object[]{id, roleNames.get((u + r) % roles)});
+
+            if (userRows.size() == BATCH_SIZE || u == users - 1) {
+                jdbcTemplate.batchUpdate("INSERT INTO user (id, username, password, firstname, lastname) VALUES (?, ?, ?, ?, ?)",
+                        userRows);
+                jdbcTemplate.batchUpdate("INSERT INTO user_roles (user_id, roles_name) VALUES (?, ?)", userRoleRows);
+                userRows.clear();
+                userRoleRows.clear();
+            }
+        }
+
+        log.info("Seeded {} users, {} roles, {} permissions in {} ms", users, roles, permissions,
+                (System.nanoTime() - started) / 1_000_000);
+    }
+}
@@ -0,0 +1,292 @@
+package com.luv2code.IdentityService.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop driver: requests are issued on a fixed schedule whatever the server's response time,
+ * and latency is measured from the scheduled send time. A slow server therefore shows up in the
+ * percentiles instead of silently lowering the request rate (coordinated omission).
+ */
+@Slf4j
+class LoadDriver {
+
+    enum Operation {
+        LOGIN,
+        INTROSPECT,
+        REFRESH,
+        LOGOUT,
+        USER_READ
+    }
+
+    static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(5);
+
+    final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+    final ObjectMapper objectMapper = new ObjectMapper();
+
+    final URI baseUri;
+    final int users;
+    final String password;
+    final Semaphore inFlight;
+    final int maxInFlight;
+
+    // tokens handed out by the service; logout and refresh take theirs out so nobody else uses a revoked one
+    final AtomicReferenceArray<String> tokens;
+
+    final Map<Operation, Recorder> recorders = new EnumMap<>(Operation.class);
+    final Map<Operation, AtomicLong> errors = new EnumMap<>(Operation.class);
+    final AtomicLong dropped = new AtomicLong();
+
+    LoadDriver(URI baseUri, int users, String password, int tokenPoolSize, int maxInFlight) {
+        this.baseUri = baseUri;
+        this.users = users;
+        this.password = password;
+        this.tokens = new AtomicReferenceArray<>(tokenPoolSize);
+        this.maxInFlight = maxInFlight;
+        this.inFlight = new Semaphore(maxInFlight);
+
+        for (Operation operation : Operation.values()) {
+            recorders.put(operation, new Recorder(HIGHEST_TRACKABLE_MICROS, 3));
+            errors.put(operation, new AtomicLong());
+        }
+    }
+
+    void prefillTokens() {
+        log.info("Logging in {} users to fill the token pool", tokens.length());
+        var logins = new CompletableFuture<?>[tokens.length()];
+        var permits = new Semaphore(Runtime.getRuntime().availableProcessors() * 2);
+
+        for (int i = 0; i < tokens.length(); i++) {
+            int slot = i;
+            permits.acquireUninterruptibly();
+            logins[i] = login().whenComplete((token, e) -> {
+                permits.release();
+                if (token != null)
+                    tokens.set(slot, token);
+                else if (slot == 0)
+                    log.warn("Login failed: {}", e.getMessage());
+            });
+        }
+        CompletableFuture.allOf(logins).exceptionally(e -> null).join();
+    }
+
+    LoadReport run(int rate, Duration warmup, Duration duration, Map<Operation, Integer> mix) {
+        var picker = new OperationPicker(mix);
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        long start = System.nanoTime();
+        long measureFrom = start + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+        boolean measuring = false;
+
+        log.info("Warming up for {} s, then measuring for {} s at {} requests/s", warmup.toSeconds(),
+                duration.toSeconds(), rate);
+
+        for (long i = 0; ; i++) {
+            long scheduled = start + i * intervalNanos;
+            if (scheduled >= end)
+                break;
+
+            if (!measuring && scheduled >= measureFrom) {
+                reset();
+                measuring = true;
+            }
+
+            long wait = scheduled - System.nanoTime();
+            if (wait > 0)
+                LockSupport.parkNanos(wait);
+
+            if (!inFlight.tryAcquire()) {
+                dropped.incrementAndGet();
+                continue;
+            }
+            issue(picker.next(), scheduled).whenComplete((ignored, e) -> inFlight.release());
+        }
+
+        // let the tail of the measured window finish
+        inFlight.acquireUninterruptibly(maxInFlight);
+        long elapsedNanos = System.nanoTime() - measureFrom;
+
+        Map<Operation, Histogram> histograms = new EnumMap<>(Operation.class);
+        Map<Operation, Long> errorCounts = new EnumMap<>(Operation.class);
+        recorders.forEach((operation, recorder) -> histograms.put(operation, recorder.getIntervalHistogram()));
+        errors.forEach((operation, count) -> errorCounts.put(operation, count.get()));
+
+        return new LoadReport(rate, elapsedNanos, histograms, errorCounts, dropped.get());
+    }
+
+    private void reset() {
+        recorders.values().forEach(Recorder::reset);
+        errors.values().forEach(count -> count.set(0));
+        dropped.set(0);
+    }
+
+    private CompletableFuture<?> issue(Operation operation, long scheduled) {
+        String token = null;
+        if (operation == Operation.REFRESH || operation == Operation.LOGOUT)
+            token = takeToken();
+        else if (operation != Operation.LOGIN)
+            token = peekToken();
+
+        // pool momentarily empty: a login is what a real client would do next
+        if (token == null && operation != Operation.LOGIN)
+            operation = Operation.LOGIN;
+
+        final Operation op = operation;
+        CompletableFuture<?> call = switch (op) {
+            case LOGIN -> login().thenAccept(this::putToken);
+            case INTROSPECT -> post("/auth/introspect", Map.of("token", token));
+            case REFRESH -> post("/auth/refresh", Map.of("token", token))
+                    .thenAccept(results -> putToken(results.path("token").asText(null)));
+            case LOGOUT -> post("/auth/logout", Map.of("token", token));
+            case USER_READ -> send(HttpRequest.newBuilder(baseUri.resolve(baseUri.getPath() + "/users/getInfo"))
+                    .header("Authorization", "Bearer " + token)
+                    .GET()
+                    .build());
+        };
+
+        return call.whenComplete((ignored, e) -> {
+            long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - scheduled);
+            recorders.get(op).recordValue(Math.min(micros, HIGHEST_TRACKABLE_MICROS));
+            if (e != null && errors.get(op).getAndIncrement() == 0)
+                log.warn("First {} failure: {}", op, e.getMessage());
+        });
+    }
+
+    private CompletableFuture<String> login() {
+        var username = "user" + ThreadLocalRandom.current().nextInt(users);
+        return post("/auth/token", Map.of("username", username, "password", password))
+                .thenApply(results -> results.path("token").asText(null));
+    }
+
+    private CompletableFuture<JsonNode> post(String path, Map<String, String> body) {
+        try {
+            return send(HttpRequest.newBuilder(baseUri.resolve(baseUri.getPath() + path))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                    .build());
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    // GlobalExceptionHandler answers every ErrorCode with its HTTP status, so non-2xx is the failure signal
+    private CompletableFuture<JsonNode> send(HttpRequest request) {
+        return client.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                .thenApply(response -> {
+                    if (response.statusCode() / 100 != 2)
+                        throw new IllegalStateException("HTTP " + response.statusCode() + " "
+                                + new String(response.body(), StandardCharsets.UTF_8));
+                    try {
+                        return objectMapper.readTree(response.body()).path("results");
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    private String peekToken() {
+        var random = ThreadLocalRandom.current();
+        for (int attempt = 0; attempt < 8; attempt++) {
+            var token = tokens.get(random.nextInt(tokens.length()));
+            if (token != null)
+                return token;
+        }
+        return null;
+    }
+
+    private String takeToken() {
+        var random = ThreadLocalRandom.current();
+        for (int attempt = 0; attempt < 8; attempt++) {
+            var token = tokens.getAndSet(random.nextInt(tokens.length()), null);
+            if (token != null)
+                return token;
+        }
+        return null;
+    }
+
+    private void putToken(String token) {
+        if (token == null)
+            return;
+        var random = ThreadLocalRandom.current();
+        for (int attempt = 0; attempt < 8; attempt++) {
+            if (tokens.compareAndSet(random.nextInt(tokens.length()), null, token))
+                return;
+        }
+        tokens.set(random.nextInt(tokens.length()), token);
+    }
+
+    static class OperationPicker {
+        final Operation[] table;
+
+        OperationPicker(Map<Operation, Integer> weights) {
+            int total = weights.values().stream().mapToInt(Integer::intValue).sum();
+            table = new Operation[total];
+            int i = 0;
+            for (var entry : weights.entrySet())
+                for (int w = 0; w < entry.getValue(); w++)
+                    table[i++] = entry.getKey();
+        }
+
+        Operation next() {
+            return table[ThreadLocalRandom.current().nextInt(table.length)];
+        }
+    }
+
+    record LoadReport(int targetRate, long elapsedNanos, Map<Operation, Histogram> histograms,
+                      Map<Operation, Long> errors, long dropped) {
+
+        void print(PrintStream out) {
+            var all = new Histogram(HIGHEST_TRACKABLE_MICROS, 3);
+            long allErrors = 0;
+
+            out.printf("%-12s %10s %8s %10s %10s %10s %10s%n",
+                    "operation", "count", "errors", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+            for (var entry : histograms.entrySet()) {
+                var histogram = entry.getValue();
+                if (histogram.getTotalCount() == 0)
+                    continue;
+                all.add(histogram);
+                allErrors += errors.get(entry.getKey());
+                printRow(out, entry.getKey().name().toLowerCase(), histogram, errors.get(entry.getKey()));
+            }
+            printRow(out, "all", all, allErrors);
+
+            double seconds = elapsedNanos / 1e9;
+            out.printf("%nthroughput: %.1f requests/s (target %d), dropped at client: %d%n",
+                    all.getTotalCount() / seconds, targetRate, dropped);
+        }
+
+        private static void printRow(PrintStream out, String name, Histogram histogram, long errors) {
+            out.printf("%-12s %10d %8d %10.2f %10.2f %10.2f %10.2f%n", name, histogram.getTotalCount(), errors,
+                    histogram.getValueAtPercentile(50) / 1000.0,
+                    histogram.getValueAtPercentile(99) / 1000.0,
+                    histogram.getValueAtPercentile(99.9) / 1000.0,
+                    histogram.getMaxValue() / 1000.0);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.luv2code.IdentityService.loadtest;
+
+import com.luv2code.IdentityService.IdentityServiceApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Boots the service on an in-memory H2 database, seeds users, roles and permissions, then drives
+ * a mix of auth and user-read requests at a fixed rate and prints latency percentiles.
+ * <pre>
+ * mvn -Ploadtest test-compile exec:exec -Dloadtest.args="--users=50000 --rate=800 --duration=120 --virtual=true"
+ * </pre>
+ * Options (defaults in brackets): users [10000], roles [10], permissions [200], roles-per-user [2],
+ * permissions-per-role [20], rate requests/s [500], duration s [60], warmup s [15], token-pool [500],
+ * max-in-flight [5000], virtual [false],
+ * mix [login=10,introspect=40,refresh=5,logout=5,user_read=40].
+ * Any other {@code --key=value} is handed to Spring, e.g. {@code --spring.datasource.hikari.maximum-pool-size=20}.
+ */
+public class LoadTest {
+
+    static final String PASSWORD = "password";
+
+    static final List<String> HARNESS_OPTIONS = List.of("users", "roles", "permissions", "roles-per-user",
+            "permissions-per-role", "rate", "duration", "warmup", "token-pool", "max-in-flight", "virtual", "mix");
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        List<String> springArgs = new ArrayList<>();
+        for (String arg : args) {
+            var keyValue = arg.replaceFirst("^--", "").split("=", 2);
+            if (HARNESS_OPTIONS.contains(keyValue[0]))
+                options.put(keyValue[0], keyValue.length > 1 ? keyValue[1] : "true");
+            else
+                springArgs.add(arg);
+        }
+
+        boolean virtual = Boolean.parseBoolean(options.getOrDefault("virtual", "false"));
+        // Spring joins repeated properties into a list, so a default is only added when the caller did not set it
+        List<String> defaults = List.of(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:loadtest;MODE=MySQL;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.hibernate.ddl-auto=create",
+                "--spring.jpa.show-sql=false",
+                "--spring.threads.virtual.enabled=" + virtual,
+                // the purge job relies on MySQL named locks
+                "--jwt.purge.cron=-",
+                // every request comes from one address, and the logins are the load being measured
+                "--login-rate-limit.enabled=false",
+                "--logging.level.root=WARN",
+                "--logging.level.com.luv2code.IdentityService.loadtest=INFO");
+        for (String arg : defaults.reversed()) {
+            var key = arg.substring(0, arg.indexOf('=') + 1);
+            if (springArgs.stream().noneMatch(given -> given.startsWith(key)))
+                springArgs.addFirst(arg);
+        }
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(IdentityServiceApplication.class)
+                .run(springArgs.toArray(String[]::new))) {
+
+            var seeder = new DataSeeder(context.getBean(JdbcTemplate.class));
+            seeder.seed(intOption(options, "users", 10_000), intOption(options, "roles", 10),
+                    intOption(options, "permissions", 200), intOption(options, "roles-per-user", 2),
+                    intOption(options, "permissions-per-role", 20), PASSWORD);
+
+            var baseUri = URI.create("http://localhost:" + context.getEnvironment().getProperty("local.server.port")
+                    + context.getEnvironment().getProperty("server.servlet.context-path", ""));
+
+            var driver = new LoadDriver(baseUri, intOption(options, "users", 10_000), PASSWORD,
+                    intOption(options, "token-pool", 500), intOption(options, "max-in-flight", 5000));
+            driver.prefillTokens();
+
+            var report = driver.run(
+                    intOption(options, "rate", 500),
+                    Duration.ofSeconds(intOption(options, "warmup", 15)),
+                    Duration.ofSeconds(intOption(options, "duration", 60)),
+                    parseMix(options.getOrDefault("mix", "login=10,introspect=40,refresh=5,logout=5,user_read=40")));
+
+            System.out.printf("%nthreads: %s%n", virtual ? "virtual" : "platform");
+            report.print(System.out);
+        }
+    }
+
+    static int intOption(Map<String, String> options, String name, int defaultValue) {
+        return Integer.parseInt(options.getOrDefault(name, String.valueOf(defaultValue)));
+    }
+
+    static Map<LoadDriver.Operation, Integer> parseMix(String mix) {
+        Map<LoadDriver.Operation, Integer> weights = new EnumMap<>(LoadDriver.Operation.class);
+        for (String entry : mix.split(",")) {
+            var keyValue = entry.split("=");
+            weights.put(LoadDriver.Operation.valueOf(keyValue[0].trim().toUpperCase(Locale.ROOT)),
+                    Integer.parseInt(keyValue[1].trim()));
+        }
+        return weights;
+    }
+}
@@ -1,9 +1,14 @@
 package com.luv2code.IdentityService;
 
+import com.luv2code.IdentityService.repository.CacheAwareJpaRepository;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
+@EnableJpaRepositories(repositoryBaseClass = CacheAwareJpaRepository.class)
 public class IdentityServiceApplication {
 
 	public static void main(String[] args) {
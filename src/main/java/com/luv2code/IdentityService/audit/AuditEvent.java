@@ -0,0 +1,12 @@
+package com.luv2code.IdentityService.audit;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.luv2code.IdentityService.enums.AuditEventType;
+
+import java.time.Instant;
+
+/**
+ * One line of the audit log.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record AuditEvent(Instant timestamp, AuditEventType type, String username, String detail) {}
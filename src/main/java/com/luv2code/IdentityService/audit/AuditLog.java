@@ -0,0 +1,213 @@
+package com.luv2code.IdentityService.audit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.luv2code.IdentityService.enums.AuditEventType;
+import com.luv2code.IdentityService.enums.AuditOverflowPolicy;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Audit trail of logins, failed logins, refreshes and logouts that costs a request neither a database
+ * write nor any I/O: {@link #publish} only puts the event into a lock-free ring buffer, and a single
+ * writer thread drains it in batches into AuditSegmentWriter, flushing once per batch. When the buffer
+ * is full the overflow policy decides: DROP discards the event at once, BLOCK waits at most the block
+ * timeout for the writer to make room. Either way an event that does not fit is counted in
+ * {@code audit.events.dropped} rather than holding up the login.
+ */
+@Slf4j
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class AuditLog implements Closeable {
+
+    static final long BLOCK_BACKOFF_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    static final long CLOSE_TIMEOUT_MILLIS = 10_000;
+
+    boolean enabled;
+    AuditRingBuffer<AuditEvent> buffer;
+    AuditOverflowPolicy overflowPolicy;
+    long blockTimeoutNanos;
+    int batchSize;
+    long pollIntervalNanos;
+    ObjectWriter eventWriter;
+    AuditSegmentWriter segmentWriter;
+    Thread writerThread;
+
+    Counter written;
+    Counter dropped;
+    Counter failed;
+
+    // publishers between their running check and their offer; the writer's last drain waits for them
+    AtomicInteger publishing = new AtomicInteger();
+
+    @NonFinal
+    volatile boolean running = true;
+
+    public AuditLog(AuditProperties properties, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        this.buffer = new AuditRingBuffer<>(properties.getBufferCapacity());
+        this.overflowPolicy = properties.getOverflowPolicy();
+        this.blockTimeoutNanos = properties.getBlockTimeout().toNanos();
+        this.batchSize = properties.getBatchSize();
+        this.pollIntervalNanos = properties.getPollInterval().toNanos();
+        this.eventWriter = objectMapper.writerFor(AuditEvent.class)
+                .without(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+        this.written = Counter.builder("audit.events.written")
+                .description("Audit events appended to the log")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("audit.events.dropped")
+                .description("Audit events discarded because the buffer was full or the log closed")
+                .register(meterRegistry);
+        this.failed = Counter.builder("audit.events.failed")
+                .description("Audit events that could not be written")
+                .register(meterRegistry);
+        Gauge.builder("audit.buffer.size", buffer, AuditRingBuffer::size)
+                .description("Audit events waiting for the writer")
+                .register(meterRegistry);
+
+        if (!enabled) {
+            this.segmentWriter = null;
+            this.writerThread = null;
+            return;
+        }
+
+        if (properties.getDir() == null)
+            throw new IllegalStateException("audit.dir must be set when audit.enabled is true");
+
+        try {
+            this.segmentWriter = new AuditSegmentWriter(properties.getDir(), properties.getSegmentSize().toBytes(),
+                    properties.getRotationInterval(), properties.getRetention(), properties.getMaxSegments(),
+                    Clock.systemUTC());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        var threadFactory = new CustomizableThreadFactory("audit-writer-");
+        threadFactory.setDaemon(true);
+        this.writerThread = threadFactory.newThread(this::run);
+        writerThread.start();
+
+        log.info("Audit log in {}: buffer of {} events, overflow policy {}", properties.getDir(),
+                buffer.capacity(), overflowPolicy);
+    }
+
+    /**
+     * Never waits longer than the block timeout, and not at all under the DROP policy.
+     */
+    public void publish(AuditEventType type, String username, String detail) {
+        if (!enabled)
+            return;
+
+        var event = new AuditEvent(Instant.now(), type, username, detail);
+        publishing.incrementAndGet();
+        try {
+            if (running && (buffer.offer(event)
+                    || overflowPolicy == AuditOverflowPolicy.BLOCK && offerWithinTimeout(event)))
+                return;
+        } finally {
+            publishing.decrementAndGet();
+        }
+
+        // buffer full, or published after close()
+        dropped.increment();
+    }
+
+    /**
+     * Stops the writer once everything published so far is on disk.
+     */
+    @Override
+    public void close() {
+        if (!enabled || !running)
+            return;
+
+        running = false;
+        LockSupport.unpark(writerThread);
+        try {
+            writerThread.join(CLOSE_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writerThread.isAlive())
+            log.warn("Audit writer did not finish within {} ms, {} events may be lost", CLOSE_TIMEOUT_MILLIS,
+                    buffer.size());
+    }
+
+    private boolean offerWithinTimeout(AuditEvent event) {
+        long deadline = System.nanoTime() + blockTimeoutNanos;
+        while (System.nanoTime() - deadline < 0) {
+            // the writer may be sleeping for the poll interval
+            LockSupport.unpark(writerThread);
+            LockSupport.parkNanos(BLOCK_BACKOFF_NANOS);
+            if (buffer.offer(event))
+                return true;
+        }
+        return false;
+    }
+
+    private void run() {
+        List<AuditEvent> batch = new ArrayList<>(batchSize);
+        while (true) {
+            // read before draining, so events published before close(), or racing it, are still written
+            boolean stopping = !running && publishing.get() == 0;
+
+            buffer.drain(batch::add, batchSize);
+            if (!batch.isEmpty()) {
+                write(batch);
+                batch.clear();
+            } else if (stopping) {
+                break;
+            } else {
+                LockSupport.parkNanos(this, pollIntervalNanos);
+            }
+        }
+
+        try {
+            segmentWriter.close();
+        } catch (IOException e) {
+            log.warn("Could not close the audit log", e);
+        }
+    }
+
+    private void write(List<AuditEvent> batch) {
+        int appended = 0;
+        Exception failure = null;
+        for (AuditEvent event : batch) {
+            try {
+                segmentWriter.append(eventWriter.writeValueAsBytes(event));
+                appended++;
+            } catch (IOException | RuntimeException e) {
+                failure = e;
+            }
+        }
+
+        try {
+            segmentWriter.force();
+        } catch (UncheckedIOException e) {
+            failure = e;
+        }
+
+        written.increment(appended);
+        if (failure != null) {
+            failed.increment(batch.size() - appended);
+            log.error("Could not write {} of {} audit events", batch.size() - appended, batch.size(), failure);
+        }
+    }
+}
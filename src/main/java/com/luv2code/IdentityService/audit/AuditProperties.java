@@ -0,0 +1,44 @@
+package com.luv2code.IdentityService.audit;
+
+import com.luv2code.IdentityService.enums.AuditOverflowPolicy;
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.experimental.FieldDefaults;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Data
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@ConfigurationProperties("audit")
+public class AuditProperties {
+
+    // off unless configured, enabling it requires dir
+    boolean enabled;
+
+    // required when enabled: one directory per instance, on storage that outlives the process
+    Path dir;
+
+    // events, rounded up to a power of two
+    int bufferCapacity = 65536;
+
+    AuditOverflowPolicy overflowPolicy = AuditOverflowPolicy.DROP;
+
+    Duration blockTimeout = Duration.ofMillis(10);
+
+    // events written between two flushes to disk
+    int batchSize = 1024;
+
+    // how long the writer sleeps when the buffer is empty
+    Duration pollInterval = Duration.ofMillis(10);
+
+    DataSize segmentSize = DataSize.ofMegabytes(64);
+
+    Duration rotationInterval = Duration.ofHours(1);
+
+    Duration retention = Duration.ofDays(30);
+
+    int maxSegments = 1000;
+}
@@ -0,0 +1,97 @@
+package com.luv2code.IdentityService.audit;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Bounded lock-free queue for many producers and a single consumer (Vyukov's array queue). Every slot
+ * carries a sequence number: a producer claims a position with one CAS on the tail when the slot's
+ * sequence says it is free, stores the element and publishes it by advancing the sequence; the
+ * consumer takes it once the sequence says it is filled and hands the slot to the next lap. A full
+ * buffer fails {@link #offer} immediately instead of waiting.
+ */
+final class AuditRingBuffer<E> {
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<E> elements;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    // written by the consumer only, read by size()
+    private final AtomicLong head = new AtomicLong();
+
+    AuditRingBuffer(int requestedCapacity) {
+        if (requestedCapacity < 2)
+            throw new IllegalArgumentException("capacity must be at least 2");
+
+        this.capacity = Integer.highestOneBit(requestedCapacity - 1) << 1;
+        this.mask = capacity - 1;
+        this.elements = new AtomicReferenceArray<>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++)
+            sequences.set(i, i);
+    }
+
+    /**
+     * @return false when the buffer is full
+     */
+    boolean offer(E element) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) position & mask;
+            long difference = sequences.getAcquire(index) - position;
+
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    elements.setPlain(index, element);
+                    sequences.setRelease(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                // the consumer has not taken this slot's element from the previous lap
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Consumer only. Stops early at a slot that is claimed but not yet published.
+     *
+     * @return the number of elements handed to {@code sink}
+     */
+    int drain(Consumer<E> sink, int limit) {
+        long position = head.get();
+        int drained = 0;
+        try {
+            while (drained < limit) {
+                int index = (int) position & mask;
+                if (sequences.getAcquire(index) != position + 1)
+                    break;
+
+                E element = elements.getPlain(index);
+                elements.setPlain(index, null);
+                sequences.setRelease(index, position + capacity);
+                position++;
+                drained++;
+                sink.accept(element);
+            }
+        } finally {
+            head.setRelease(position);
+        }
+        return drained;
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    // approximate while producers and the consumer are running
+    int size() {
+        return (int) Math.max(0, tail.get() - head.getAcquire());
+    }
+}
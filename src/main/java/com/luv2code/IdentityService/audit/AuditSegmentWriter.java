@@ -0,0 +1,158 @@
+package com.luv2code.IdentityService.audit;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static java.nio.file.StandardOpenOption.*;
+
+/**
+ * The audit log on disk: numbered segment files ({@code audit-0000000001.log}, ...) of a fixed size,
+ * each memory-mapped and filled with one record per line. An append is a copy into the mapping, so
+ * records survive a crash of the process as soon as they are written and a crash of the machine once
+ * {@link #force()} returned. Segments are never reopened: a new one starts when a record does not fit
+ * or the current one is older than the rotation interval, and the old one is cut to its content. A
+ * segment left behind by a crash keeps NUL padding after its last line. Whenever a segment starts,
+ * closed segments older than the retention period, or beyond the maximum count, are deleted.
+ *
+ * <p>Not thread-safe, AuditLog's writer thread is the only caller.
+ */
+@Slf4j
+final class AuditSegmentWriter implements Closeable {
+
+    private static final Pattern SEGMENT = Pattern.compile("audit-\\d{10}\\.log");
+
+    private final Path dir;
+    private final int segmentSize;
+    private final Duration rotationInterval;
+    private final Duration retention;
+    private final int maxSegments;
+    private final Clock clock;
+
+    private long nextIndex;
+    private Path segment;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private Instant openedAt;
+    private int forcedPosition;
+
+    AuditSegmentWriter(Path dir, long segmentSize, Duration rotationInterval, Duration retention, int maxSegments,
+                       Clock clock) throws IOException {
+        if (segmentSize < 1 || segmentSize > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("segment size must be between 1 byte and 2GB, was " + segmentSize);
+
+        this.dir = Files.createDirectories(dir);
+        this.segmentSize = (int) segmentSize;
+        this.rotationInterval = rotationInterval;
+        this.retention = retention;
+        this.maxSegments = maxSegments;
+        this.clock = clock;
+
+        List<Path> existing = segments();
+        this.nextIndex = existing.isEmpty() ? 1 : index(existing.getLast()) + 1;
+        deleteExpired();
+    }
+
+    void append(byte[] record) throws IOException {
+        int length = record.length + 1;
+        if (length > segmentSize)
+            throw new IllegalArgumentException("audit record of " + length + " bytes does not fit in a segment");
+
+        if (buffer == null || buffer.remaining() < length || !clock.instant().isBefore(openedAt.plus(rotationInterval)))
+            startSegment();
+
+        buffer.put(record).put((byte) '\n');
+    }
+
+    /**
+     * Flushes what was appended since the last call to the storage device.
+     */
+    void force() {
+        if (buffer == null)
+            return;
+
+        int position = buffer.position();
+        if (position > forcedPosition) {
+            buffer.force(forcedPosition, position - forcedPosition);
+            forcedPosition = position;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        closeSegment();
+    }
+
+    private void startSegment() throws IOException {
+        closeSegment();
+
+        segment = dir.resolve("audit-%010d.log".formatted(nextIndex++));
+        channel = FileChannel.open(segment, CREATE_NEW, READ, WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        openedAt = clock.instant();
+        forcedPosition = 0;
+
+        deleteExpired();
+    }
+
+    private void closeSegment() throws IOException {
+        if (channel == null)
+            return;
+
+        try {
+            force();
+            // the mapping itself goes with the buffer; some platforms refuse to shrink a mapped file
+            try {
+                channel.truncate(buffer.position());
+            } catch (IOException e) {
+                log.warn("Could not truncate audit segment {}, it keeps its padding", segment, e);
+            }
+        } finally {
+            channel.close();
+            channel = null;
+            buffer = null;
+        }
+    }
+
+    private void deleteExpired() throws IOException {
+        List<Path> segments = segments();
+        Instant cutoff = clock.instant().minus(retention);
+        int excess = segments.size() - maxSegments;
+
+        for (Path candidate : segments) {
+            if (candidate.equals(segment))
+                continue;
+
+            if (excess > 0 || Files.getLastModifiedTime(candidate).toInstant().isBefore(cutoff)) {
+                Files.deleteIfExists(candidate);
+                excess--;
+                log.info("Deleted audit segment {}", candidate.getFileName());
+            }
+        }
+    }
+
+    // oldest first, the zero-padded index sorts by name
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(file -> SEGMENT.matcher(file.getFileName().toString()).matches())
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static long index(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring("audit-".length(), name.length() - ".log".length()));
+    }
+}
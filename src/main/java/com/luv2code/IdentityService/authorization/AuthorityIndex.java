@@ -0,0 +1,30 @@
+package com.luv2code.IdentityService.authorization;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Interns authority names ({@code ROLE_ADMIN}, permission names) to small integers, assigned on first
+ * sight and stable for the life of the process. Only names from tokens this service signed and from
+ * {@link HasAuthority} annotations are interned, so the table stays the size of the role model.
+ */
+@Component
+public class AuthorityIndex {
+
+    private final ConcurrentMap<String, Integer> indices = new ConcurrentHashMap<>();
+    private final AtomicInteger next = new AtomicInteger();
+
+    public int indexOf(String authority) {
+        var index = indices.get(authority);
+        if (index != null)
+            return index;
+        return indices.computeIfAbsent(authority, ignored -> next.getAndIncrement());
+    }
+
+    public int size() {
+        return next.get();
+    }
+}
@@ -0,0 +1,40 @@
+package com.luv2code.IdentityService.authorization;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Immutable bitset of {@link AuthorityIndex} indices: membership is one array read and a mask.
+ */
+public final class AuthoritySet {
+
+    private final long[] words;
+
+    private AuthoritySet(long[] words) {
+        this.words = words;
+    }
+
+    public static AuthoritySet of(Collection<String> authorities, AuthorityIndex authorityIndex) {
+        long[] words = new long[0];
+        for (String authority : authorities) {
+            int index = authorityIndex.indexOf(authority);
+            int word = index >>> 6;
+            if (word >= words.length)
+                words = Arrays.copyOf(words, word + 1);
+            words[word] |= 1L << index;
+        }
+        return new AuthoritySet(words);
+    }
+
+    public boolean contains(int index) {
+        int word = index >>> 6;
+        return word < words.length && (words[word] & (1L << index)) != 0;
+    }
+
+    public int cardinality() {
+        int count = 0;
+        for (long word : words)
+            count += Long.bitCount(word);
+        return count;
+    }
+}
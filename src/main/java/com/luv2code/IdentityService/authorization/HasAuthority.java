@@ -0,0 +1,15 @@
+package com.luv2code.IdentityService.authorization;
+
+import java.lang.annotation.*;
+
+/**
+ * Method security check equivalent to {@code @PreAuthorize("hasAuthority('...')")}, evaluated as a
+ * bit test by {@link HasAuthorityAuthorizationManager} instead of a SpEL expression. Roles are
+ * written with their prefix, {@code @HasAuthority("ROLE_ADMIN")} for {@code hasRole('ADMIN')}.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface HasAuthority {
+    String value();
+}
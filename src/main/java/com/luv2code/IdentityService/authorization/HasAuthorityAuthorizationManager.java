@@ -0,0 +1,69 @@
+package com.luv2code.IdentityService.authorization;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Decides {@link HasAuthority} methods. The annotation is resolved to an authority index once per
+ * method; each call is then a single {@link AuthoritySet#contains} on the caller's token. Other
+ * Authentication types (tests, anonymous) fall back to scanning their authorities.
+ */
+public class HasAuthorityAuthorizationManager implements AuthorizationManager<MethodInvocation> {
+
+    private static final AuthorizationDecision GRANTED = new AuthorizationDecision(true);
+    private static final AuthorizationDecision DENIED = new AuthorizationDecision(false);
+
+    record Requirement(String authority, int index) {}
+
+    private final Supplier<AuthorityIndex> authorityIndex;
+    private final Map<Method, Requirement> requirements = new ConcurrentHashMap<>();
+
+    public HasAuthorityAuthorizationManager(AuthorityIndex authorityIndex) {
+        this(() -> authorityIndex);
+    }
+
+    /**
+     * @param authorityIndex asked on the first check of each method, not before
+     */
+    public HasAuthorityAuthorizationManager(Supplier<AuthorityIndex> authorityIndex) {
+        this.authorityIndex = authorityIndex;
+    }
+
+    @Override
+    public AuthorizationDecision check(Supplier<Authentication> authentication, MethodInvocation invocation) {
+        var requirement = requirements.get(invocation.getMethod());
+        if (requirement == null)
+            requirement = requirements.computeIfAbsent(invocation.getMethod(),
+                    method -> resolve(method, invocation.getThis()));
+
+        var current = authentication.get();
+        if (current == null || !current.isAuthenticated())
+            return DENIED;
+
+        if (current instanceof IndexedJwtAuthenticationToken token)
+            return token.getAuthoritySet().contains(requirement.index()) ? GRANTED : DENIED;
+
+        for (GrantedAuthority grantedAuthority : current.getAuthorities())
+            if (requirement.authority().equals(grantedAuthority.getAuthority()))
+                return GRANTED;
+        return DENIED;
+    }
+
+    private Requirement resolve(Method method, Object target) {
+        Method specific = AopUtils.getMostSpecificMethod(method, target == null ? null : AopUtils.getTargetClass(target));
+        var annotation = AnnotatedElementUtils.findMergedAnnotation(specific, HasAuthority.class);
+        if (annotation == null)
+            throw new IllegalStateException("No @HasAuthority on " + specific);
+        return new Requirement(annotation.value(), authorityIndex.get().indexOf(annotation.value()));
+    }
+}
@@ -0,0 +1,58 @@
+package com.luv2code.IdentityService.authorization;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Turns the space-separated {@code scope} claim into authorities, as JwtAuthenticationConverter with
+ * an empty prefix does, but once per distinct scope string: users with the same roles share one
+ * precomputed authority list and {@link AuthoritySet}.
+ */
+@Component
+public class IndexedJwtAuthenticationConverter implements Converter<Jwt, AbstractAuthenticationToken> {
+
+    static final String SCOPE_CLAIM = "scope";
+
+    record Authorities(List<GrantedAuthority> list, AuthoritySet set) {}
+
+    private final AuthorityIndex authorityIndex;
+    private final Cache<String, Authorities> byScope;
+
+    public IndexedJwtAuthenticationConverter(AuthorityIndex authorityIndex,
+                                             @Value("${jwt.authority-cache.maximum-size:10000}") long maximumSize) {
+        this.authorityIndex = authorityIndex;
+        this.byScope = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .build();
+    }
+
+    @Override
+    public AbstractAuthenticationToken convert(Jwt jwt) {
+        String scope = jwt.getClaimAsString(SCOPE_CLAIM);
+        var authorities = byScope.get(scope == null ? "" : scope, this::parse);
+        return new IndexedJwtAuthenticationToken(jwt, authorities.list(), authorities.set());
+    }
+
+    private Authorities parse(String scope) {
+        List<String> names = Arrays.stream(scope.split(" "))
+                .filter(StringUtils::hasText)
+                .distinct()
+                .toList();
+
+        List<GrantedAuthority> list = names.stream()
+                .<GrantedAuthority>map(SimpleGrantedAuthority::new)
+                .toList();
+        return new Authorities(list, AuthoritySet.of(names, authorityIndex));
+    }
+}
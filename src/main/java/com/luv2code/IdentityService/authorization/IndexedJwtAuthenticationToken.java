@@ -0,0 +1,34 @@
+package com.luv2code.IdentityService.authorization;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * JwtAuthenticationToken that also carries its authorities as an {@link AuthoritySet}. The authority
+ * list is shared with every token of the same scope instead of being copied per request.
+ */
+public class IndexedJwtAuthenticationToken extends JwtAuthenticationToken {
+
+    private final transient AuthoritySet authoritySet;
+    private final List<GrantedAuthority> authorities;
+
+    public IndexedJwtAuthenticationToken(Jwt jwt, List<GrantedAuthority> authorities, AuthoritySet authoritySet) {
+        super(jwt, List.of(), jwt.getSubject());
+        this.authorities = authorities;
+        this.authoritySet = authoritySet;
+        setAuthenticated(true);
+    }
+
+    public AuthoritySet getAuthoritySet() {
+        return authoritySet;
+    }
+
+    @Override
+    public Collection<GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+}
@@ -0,0 +1,252 @@
+package com.luv2code.IdentityService.cache;
+
+import com.luv2code.IdentityService.datasource.ReadYourWrites;
+import com.luv2code.IdentityService.repository.InvalidatedTokenRepository;
+import com.luv2code.IdentityService.service.InvalidatedTokenPurgeService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bloom filter of revoked JTIs in front of {@link InvalidatedTokenRepository#existsById}.
+ * Only a "maybe revoked" answer falls through to the database; until the first load has
+ * finished every lookup falls through. Revocations made on other nodes are polled by
+ * {@code revokedAt} (minus a clock-skew margin) every few seconds; loads and polls read the
+ * primary, so replica lag cannot leave a revoked JTI out of the filter.
+ */
+@Component
+@Slf4j
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class RevokedTokenFilter {
+
+    InvalidatedTokenRepository invalidatedTokenRepository;
+    InvalidatedTokenPurgeService invalidatedTokenPurgeService;
+    ReadYourWrites readYourWrites;
+    TransactionTemplate readOnlyTransaction;
+
+    Counter dbLookups;
+    Counter falsePositives;
+    AtomicLong loadedCount = new AtomicLong();
+    // not synchronized: a virtual thread blocked on JDBC inside a monitor would pin its carrier
+    ReentrantLock rebuildLock = new ReentrantLock();
+
+    @NonFinal
+    @Value("${jwt.revocation-filter.expected-insertions:1000000}")
+    long expectedInsertions;
+
+    @NonFinal
+    @Value("${jwt.revocation-filter.fpp:0.001}")
+    double fpp;
+
+    @NonFinal
+    @Value("${jwt.revocation-filter.clock-skew:PT1M}")
+    Duration clockSkew;
+
+    @NonFinal
+    volatile BloomFilter current;
+
+    // filter being loaded by rebuild(), receives concurrent adds so none are lost on swap
+    @NonFinal
+    volatile BloomFilter building;
+
+    @NonFinal
+    volatile Instant lastRefresh;
+
+    public RevokedTokenFilter(InvalidatedTokenRepository invalidatedTokenRepository,
+                              InvalidatedTokenPurgeService invalidatedTokenPurgeService,
+                              ReadYourWrites readYourWrites,
+                              PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry) {
+        this.invalidatedTokenRepository = invalidatedTokenRepository;
+        this.invalidatedTokenPurgeService = invalidatedTokenPurgeService;
+        this.readYourWrites = readYourWrites;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+
+        this.dbLookups = Counter.builder("jwt.revocation.filter.db.lookups")
+                .description("Revocation checks that fell through the Bloom filter to the database")
+                .register(meterRegistry);
+        this.falsePositives = Counter.builder("jwt.revocation.filter.false.positives")
+                .description("Database fall-throughs for tokens that were not revoked")
+                .register(meterRegistry);
+        Gauge.builder("jwt.revocation.filter.expected.fpp", this, RevokedTokenFilter::expectedFpp)
+                .description("False-positive rate expected from the current filter occupancy")
+                .register(meterRegistry);
+        Gauge.builder("jwt.revocation.filter.size", loadedCount, AtomicLong::get)
+                .description("Revoked JTIs loaded into the filter by the last rebuild")
+                .register(meterRegistry);
+    }
+
+    public boolean isRevoked(String jti) {
+        var filter = current;
+        if (filter != null && !filter.mightContain(jti))
+            return false;
+
+        dbLookups.increment();
+        // a token revoked here moments ago may not have reached the replicas yet
+        boolean revoked = readYourWrites.read(ReadYourWrites.Kind.TOKEN, jti,
+                () -> invalidatedTokenRepository.existsById(jti));
+        if (!revoked && filter != null)
+            falsePositives.increment();
+        return revoked;
+    }
+
+    /**
+     * Memory-only pre-check for results cached before the last refresh: false when the loaded filter
+     * rules the JTI out, and also while no filter is loaded, so a hit never costs a query. Only a true
+     * answer needs {@link #isRevoked(String)}.
+     */
+    public boolean mightBeRevoked(String jti) {
+        var filter = current;
+        return filter != null && filter.mightContain(jti);
+    }
+
+    /**
+     * Batch variant of {@link #isRevoked(String)}: the JTIs the filter cannot rule out are
+     * resolved with a single IN query.
+     */
+    public Set<String> findRevoked(Collection<String> jtis) {
+        var filter = current;
+        List<String> candidates = jtis.stream()
+                .filter(jti -> filter == null || filter.mightContain(jti))
+                .distinct()
+                .toList();
+        if (candidates.isEmpty())
+            return Set.of();
+
+        dbLookups.increment(candidates.size());
+        Set<String> revoked = readYourWrites.read(ReadYourWrites.Kind.TOKEN, candidates,
+                () -> invalidatedTokenRepository.findIdsByIdIn(candidates));
+        if (filter != null)
+            falsePositives.increment(candidates.size() - revoked.size());
+        return revoked;
+    }
+
+    /**
+     * Call once the revocation has been committed, so this node applies it without waiting for a refresh.
+     */
+    public void add(String jti) {
+        readYourWrites.recordWrite(ReadYourWrites.Kind.TOKEN, jti);
+        put(jti);
+    }
+
+    private void put(String jti) {
+        // building first: if no rebuild is running yet, one that starts later streams this committed row
+        var next = building;
+        if (next != null)
+            next.put(jti);
+
+        var filter = current;
+        if (filter != null)
+            filter.put(jti);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        rebuild();
+    }
+
+    /**
+     * Rebuilds the filter from the JTIs the purge job would keep, so purged revocations
+     * stop occupying bits.
+     */
+    @Scheduled(initialDelayString = "${jwt.revocation-filter.rebuild-interval:PT1H}",
+            fixedDelayString = "${jwt.revocation-filter.rebuild-interval:PT1H}")
+    public void rebuild() {
+        rebuildLock.lock();
+        try {
+            doRebuild();
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    /**
+     * Adds the JTIs revoked since the last refresh, on this node or any other.
+     */
+    @Scheduled(initialDelayString = "${jwt.revocation-filter.refresh-interval:PT5S}",
+            fixedDelayString = "${jwt.revocation-filter.refresh-interval:PT5S}")
+    public void refresh() {
+        var since = lastRefresh;
+        if (since == null) {
+            // the first load failed or is still running
+            if (rebuildLock.tryLock()) {
+                try {
+                    doRebuild();
+                } finally {
+                    rebuildLock.unlock();
+                }
+            }
+            return;
+        }
+
+        Instant start = Instant.now();
+        try {
+            List<String> ids = readYourWrites.onPrimary(() -> readOnlyTransaction.execute(status ->
+                    invalidatedTokenRepository.findIdsByRevokedAtGreaterThanEqual(since.minus(clockSkew))));
+            ids.forEach(this::put);
+            lastRefresh = start;
+        } catch (RuntimeException e) {
+            log.error("Cannot refresh revoked token filter, keeping the current one", e);
+        }
+    }
+
+    private void doRebuild() {
+        Instant start = Instant.now();
+        try {
+            // a replica behind the primary would miss JTIs revoked moments ago
+            BloomFilter next = readYourWrites.onPrimary(this::loadFilter);
+            current = next;
+            if (lastRefresh == null)
+                lastRefresh = start;
+            log.info("Revoked token filter rebuilt with {} entries", loadedCount.get());
+        } catch (RuntimeException e) {
+            log.error("Cannot rebuild revoked token filter, keeping the previous one", e);
+        } finally {
+            building = null;
+        }
+    }
+
+    private BloomFilter loadFilter() {
+        long size = Math.max(expectedInsertions, invalidatedTokenRepository.count() * 2);
+        var next = new BloomFilter(size, fpp);
+        building = next;
+
+        long loaded = readOnlyTransaction.execute(status -> {
+            try (var ids = invalidatedTokenRepository.streamIdsByExpiryTimeAfter(
+                    Date.from(invalidatedTokenPurgeService.purgeCutoff()))) {
+                return ids.mapToLong(id -> {
+                    next.put(id);
+                    return 1;
+                }).sum();
+            }
+        });
+        loadedCount.set(loaded);
+        return next;
+    }
+
+    public double expectedFpp() {
+        var filter = current;
+        return filter == null ? 1.0 : filter.expectedFpp();
+    }
+}
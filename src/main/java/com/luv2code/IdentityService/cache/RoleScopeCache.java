@@ -0,0 +1,80 @@
+package com.luv2code.IdentityService.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.luv2code.IdentityService.entity.Role;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.CollectionUtils;
+
+import java.time.Duration;
+import java.util.StringJoiner;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Precomputed scope fragment per role ({@code "ROLE_ADMIN perm1 perm2"}), so minting a token does not
+ * walk the lazy permission collections. Every role/permission write bumps the model version; entries
+ * stamped with an older version are ignored. Callers read {@link #getVersion()} before loading the
+ * roles they pass in, so a fragment built from a role loaded before a change is stamped with the
+ * version preceding it and is never served once the change has been committed. The TTL bounds
+ * staleness for changes made on other nodes.
+ */
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class RoleScopeCache {
+
+    AtomicLong version = new AtomicLong();
+    Cache<String, Fragment> fragments;
+
+    record Fragment(String scope, long version) {}
+
+    public RoleScopeCache(@Value("${jwt.scope-cache.ttl:PT5M}") Duration ttl) {
+        this.fragments = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    /**
+     * @param loadedAt {@link #getVersion()} as read before {@code role} was loaded
+     */
+    public String fragmentFor(Role role, long loadedAt) {
+        var cached = fragments.getIfPresent(role.getName());
+        if (cached != null && cached.version() == version.get())
+            return cached.scope();
+
+        var fragment = new Fragment(buildFragment(role), loadedAt);
+        fragments.asMap().merge(role.getName(), fragment,
+                (existing, computed) -> existing.version() >= computed.version() ? existing : computed);
+        return fragment.scope();
+    }
+
+    /**
+     * Fragment for a role name, or null when none is cached for the current model version.
+     */
+    public String cachedFragment(String roleName) {
+        var cached = fragments.getIfPresent(roleName);
+        return cached != null && cached.version() == version.get() ? cached.scope() : null;
+    }
+
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Call after a role or permission change has been committed.
+     */
+    public void invalidateAll() {
+        version.incrementAndGet();
+        fragments.invalidateAll();
+    }
+
+    private static String buildFragment(Role role) {
+        StringJoiner stringJoiner = new StringJoiner(" ");
+        stringJoiner.add("ROLE_" + role.getName());
+        if (!CollectionUtils.isEmpty(role.getPermissions()))
+            role.getPermissions().forEach(permission -> stringJoiner.add(permission.getName()));
+        return stringJoiner.toString();
+    }
+}
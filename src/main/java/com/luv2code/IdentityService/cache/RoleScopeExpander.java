@@ -0,0 +1,64 @@
+package com.luv2code.IdentityService.cache;
+
+import com.luv2code.IdentityService.repository.RoleRepository;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * Rebuilds the full scope string from the role names of a compact token, using the current role
+ * model: fragments come from RoleScopeCache, roles it does not hold are loaded in one read-only
+ * transaction (served by the second-level cache when warm). Roles deleted since the token was
+ * issued grant nothing.
+ */
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class RoleScopeExpander {
+
+    RoleScopeCache roleScopeCache;
+    RoleRepository roleRepository;
+    TransactionTemplate readOnlyTransaction;
+
+    public RoleScopeExpander(RoleScopeCache roleScopeCache, RoleRepository roleRepository,
+                             PlatformTransactionManager transactionManager) {
+        this.roleScopeCache = roleScopeCache;
+        this.roleRepository = roleRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    public String expand(Collection<String> roleNames) {
+        Map<String, String> fragments = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String roleName : roleNames) {
+            String fragment = roleScopeCache.cachedFragment(roleName);
+            if (fragment != null)
+                fragments.put(roleName, fragment);
+            else
+                missing.add(roleName);
+        }
+
+        if (!missing.isEmpty()) {
+            long loadedAt = roleScopeCache.getVersion();
+            readOnlyTransaction.executeWithoutResult(status -> roleRepository.findAllById(missing)
+                    .forEach(role -> fragments.put(role.getName(), roleScopeCache.fragmentFor(role, loadedAt))));
+        }
+
+        StringJoiner stringJoiner = new StringJoiner(" ");
+        for (String roleName : roleNames) {
+            String fragment = fragments.get(roleName);
+            if (fragment != null)
+                stringJoiner.add(fragment);
+        }
+        return stringJoiner.toString();
+    }
+}
@@ -0,0 +1,102 @@
+package com.luv2code.IdentityService.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.nimbusds.jwt.SignedJWT;
+import jakarta.annotation.PostConstruct;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-process cache of token verification results, keyed by the SHA-256 digest of the raw token.
+ * Positive entries never outlive the token's {@code exp}; negative entries (bad signature, bad format,
+ * expired, revoked) are kept for a short time only. A negative entry is never replaced by a positive
+ * one: a verification that passed its revocation check just before a logout rejected the token
+ * cannot cache it as valid afterwards.
+ */
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class TokenVerificationCache {
+
+    @NonFinal
+    @Value("${jwt.cache.maximum-size:100000}")
+    long maximumSize;
+
+    @NonFinal
+    @Value("${jwt.cache.negative-ttl:30}")
+    long negativeTtl; // in seconds
+
+    Cache<String, Entry> cache;
+
+    /**
+     * {@code signedJWT == null} marks a rejected token.
+     */
+    public record Entry(SignedJWT signedJWT, long expiresAtMillis) {
+        public boolean isValid() {
+            return signedJWT != null;
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new Expiry<String, Entry>() {
+                    @Override
+                    public long expireAfterCreate(String key, Entry entry, long currentTime) {
+                        return TimeUnit.MILLISECONDS.toNanos(
+                                Math.max(0, entry.expiresAtMillis() - System.currentTimeMillis()));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Entry entry, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, entry, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Entry entry, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+
+    public Entry get(String token) {
+        return cache.getIfPresent(digest(token));
+    }
+
+    public void putVerified(String token, SignedJWT signedJWT, Date expiryTime) {
+        cache.asMap().merge(digest(token), new Entry(signedJWT, expiryTime.getTime()),
+                (existing, verified) -> existing.isValid() ? verified : existing);
+    }
+
+    public void putRejected(String token) {
+        cache.put(digest(token), new Entry(null, System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(negativeTtl)));
+    }
+
+    public Cache<String, Entry> getCache() {
+        return cache;
+    }
+
+    static String digest(String token) {
+        try {
+            MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = messageDigest.digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.luv2code.IdentityService.cache;
+
+import com.luv2code.IdentityService.entity.UserRevocationEpoch;
+import com.luv2code.IdentityService.repository.UserRevocationEpochRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory copy of the per-user "not valid before" table, so checking a token against it is one map
+ * lookup. Loaded in full at startup, then refreshed with the rows written since the last refresh
+ * (minus a clock-skew margin) to pick up revocations made on other nodes. Until the first load has
+ * finished every lookup falls through to the database.
+ */
+@Component
+@Slf4j
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class UserRevocationEpochs {
+
+    UserRevocationEpochRepository userRevocationEpochRepository;
+    // username -> notBefore in epoch seconds
+    Map<String, Long> notBefore = new ConcurrentHashMap<>();
+    Duration clockSkew;
+
+    @NonFinal
+    volatile boolean loaded;
+
+    @NonFinal
+    volatile Instant lastRefresh;
+
+    public UserRevocationEpochs(UserRevocationEpochRepository userRevocationEpochRepository,
+                                MeterRegistry meterRegistry,
+                                @Value("${jwt.revocation-epoch.clock-skew:PT1M}") Duration clockSkew) {
+        this.userRevocationEpochRepository = userRevocationEpochRepository;
+        this.clockSkew = clockSkew;
+
+        Gauge.builder("jwt.revocation.epoch.users", notBefore, Map::size)
+                .description("Users with a \"not valid before\" timestamp held in memory")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Whether a token of {@code username} issued at {@code issueTime} predates the user's revocation epoch.
+     */
+    public boolean isRevoked(String username, Date issueTime) {
+        if (username == null || issueTime == null)
+            return false;
+
+        Long epoch = loaded
+                ? notBefore.get(username)
+                : userRevocationEpochRepository.findById(username).map(UserRevocationEpoch::getNotBefore)
+                        .map(Instant::getEpochSecond).orElse(null);
+        return epoch != null && issueTime.getTime() / 1000 <= epoch;
+    }
+
+    /**
+     * Call once the epochs have been written, so this node applies them without waiting for a refresh.
+     */
+    public void revoke(Collection<String> usernames, Instant notBefore) {
+        usernames.forEach(username -> put(username, notBefore));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        Instant start = Instant.now();
+        try {
+            var rows = userRevocationEpochRepository.findAll();
+            rows.forEach(row -> put(row.getUsername(), row.getNotBefore()));
+            lastRefresh = start;
+            loaded = true;
+            log.info("Loaded {} user revocation epochs", rows.size());
+        } catch (RuntimeException e) {
+            log.error("Cannot load user revocation epochs, checking the database until the next refresh", e);
+        }
+    }
+
+    @Scheduled(initialDelayString = "${jwt.revocation-epoch.refresh-interval:PT10S}",
+            fixedDelayString = "${jwt.revocation-epoch.refresh-interval:PT10S}")
+    public void refresh() {
+        var since = lastRefresh;
+        if (since == null) {
+            load();
+            return;
+        }
+
+        Instant start = Instant.now();
+        try {
+            List<UserRevocationEpoch> rows =
+                    userRevocationEpochRepository.findByNotBeforeGreaterThanEqual(since.minus(clockSkew));
+            rows.forEach(row -> put(row.getUsername(), row.getNotBefore()));
+            lastRefresh = start;
+        } catch (RuntimeException e) {
+            log.error("Cannot refresh user revocation epochs, keeping the current ones", e);
+        }
+    }
+
+    private void put(String username, Instant epoch) {
+        notBefore.merge(username, epoch.getEpochSecond(), Math::max);
+    }
+}
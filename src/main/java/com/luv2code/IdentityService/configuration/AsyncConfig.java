@@ -0,0 +1,31 @@
+package com.luv2code.IdentityService.configuration;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.scheduling.annotation.AsyncConfigurer;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.security.task.DelegatingSecurityContextAsyncTaskExecutor;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Runs {@code @Async} methods on Boot's application task executor, which switches to virtual
+ * threads with {@code spring.threads.virtual.enabled}. The caller's SecurityContext is copied
+ * to the task: it lives in a ThreadLocal and a new thread, virtual or not, starts without it.
+ */
+@Configuration
+@EnableAsync
+public class AsyncConfig implements AsyncConfigurer {
+
+    private final AsyncTaskExecutor applicationTaskExecutor;
+
+    public AsyncConfig(@Qualifier("applicationTaskExecutor") AsyncTaskExecutor applicationTaskExecutor) {
+        this.applicationTaskExecutor = applicationTaskExecutor;
+    }
+
+    @Override
+    public Executor getAsyncExecutor() {
+        return new DelegatingSecurityContextAsyncTaskExecutor(applicationTaskExecutor);
+    }
+}
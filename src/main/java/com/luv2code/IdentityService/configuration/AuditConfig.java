@@ -0,0 +1,20 @@
+package com.luv2code.IdentityService.configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.luv2code.IdentityService.audit.AuditLog;
+import com.luv2code.IdentityService.audit.AuditProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(AuditProperties.class)
+public class AuditConfig {
+
+    // close() drains the buffer to disk on shutdown
+    @Bean(destroyMethod = "close")
+    public AuditLog auditLog(AuditProperties auditProperties, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        return new AuditLog(auditProperties, objectMapper, meterRegistry);
+    }
+}
@@ -1,55 +1,70 @@
 package com.luv2code.IdentityService.configuration;
 
-import com.luv2code.IdentityService.dto.request.IntrospectRequest;
+import com.luv2code.IdentityService.cache.RoleScopeExpander;
+import com.luv2code.IdentityService.exception.AppException;
 import com.luv2code.IdentityService.service.AuthenticationService;
 import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jwt.SignedJWT;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.core.convert.converter.Converter;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.jwt.JwtException;
-import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.jwt.MappedJwtClaimSetConverter;
 import org.springframework.stereotype.Component;
 
-import javax.crypto.spec.SecretKeySpec;
 import java.text.ParseException;
-import java.util.Objects;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 @Component
 public class CustomJwtDecoder implements JwtDecoder {
 
-    @Value("${jwt.signerKey}")
-    private String signerKey;
-
     @Autowired
     private AuthenticationService authenticationService;
 
-    private NimbusJwtDecoder nimbusJwtDecoder = null;
+    @Autowired
+    private RoleScopeExpander roleScopeExpander;
+
+    // same claim conversion NimbusJwtDecoder applies (exp/iat -> Instant, ...)
+    private final Converter<Map<String, Object>, Map<String, Object>> claimSetConverter =
+            MappedJwtClaimSetConverter.withDefaults(Collections.emptyMap());
 
     @Override
     public Jwt decode(String token) throws JwtException {
+        SignedJWT signedJWT;
+        Map<String, Object> claims;
 
-        try{
-            var response = authenticationService.introspect(IntrospectRequest.builder()
-                            .token(token)
-                    .build());
-
-            if (!response.isValid())
-                throw new JwtException("Token invalid");
-
-        } catch (JOSEException  | ParseException e) {
+        // parse, verify signature, check expiry and revocation exactly once
+        try {
+            signedJWT = authenticationService.verifyToken(token, false);
+            claims = expandRoles(claimSetConverter.convert(signedJWT.getJWTClaimsSet().getClaims()));
+        } catch (AppException e) {
+            throw new JwtException("Token invalid");
+        } catch (JOSEException | ParseException e) {
             throw new JwtException(e.getMessage());
         }
 
-        if(Objects.isNull(nimbusJwtDecoder)){
-            SecretKeySpec secretKeySpec = new SecretKeySpec(signerKey.getBytes(), "HS512");
-            nimbusJwtDecoder = NimbusJwtDecoder
-                    .withSecretKey(secretKeySpec)
-                    .macAlgorithm(MacAlgorithm.HS512)
-                    .build();
-        }
+        return Jwt.withTokenValue(token)
+                .headers(headers -> headers.putAll(signedJWT.getHeader().toJSONObject()))
+                .claims(jwtClaims -> jwtClaims.putAll(claims))
+                .build();
+    }
+
+    /**
+     * Compact tokens carry only role names; rebuild the scope claim from the current role model so
+     * the authentication converter sees the same claims as for a full token.
+     */
+    private Map<String, Object> expandRoles(Map<String, Object> claims) {
+        if (claims.containsKey(AuthenticationService.SCOPE_CLAIM)
+                || !(claims.get(AuthenticationService.ROLES_CLAIM) instanceof List<?> roles))
+            return claims;
 
-        return nimbusJwtDecoder.decode(token);
+        Map<String, Object> expanded = new HashMap<>(claims);
+        expanded.put(AuthenticationService.SCOPE_CLAIM, roleScopeExpander.expand(
+                roles.stream().map(String::valueOf).toList()));
+        return expanded;
     }
 }
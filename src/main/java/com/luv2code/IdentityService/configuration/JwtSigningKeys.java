@@ -0,0 +1,160 @@
+package com.luv2code.IdentityService.configuration;
+
+import com.luv2code.IdentityService.exception.AppException;
+import com.luv2code.IdentityService.exception.ErrorCode;
+import com.nimbusds.jose.*;
+import com.nimbusds.jose.crypto.*;
+import com.nimbusds.jose.jwk.*;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import jakarta.annotation.PostConstruct;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Holds the key material tokens are signed and verified with.
+ * <p>
+ * HS512 (default) keeps using the shared {@code jwt.signerKey}. RS256/ES256 sign with the private key
+ * selected by {@code jwt.signing.key-id} from {@code jwt.signing.jwk-set-location} and put its {@code kid}
+ * in the header; every key of the set stays usable for verification, so keys can be rotated.
+ */
+@Component
+@Slf4j
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class JwtSigningKeys {
+
+    @NonFinal
+    @Value("${jwt.signerKey}")
+    String signerKey;
+
+    @NonFinal
+    @Value("${jwt.signing.algorithm:HS512}")
+    String algorithm;
+
+    @NonFinal
+    @Value("${jwt.signing.jwk-set-location:#{null}}")
+    Resource jwkSetLocation;
+
+    @NonFinal
+    @Value("${jwt.signing.key-id:#{null}}")
+    String keyId;
+
+    JWSAlgorithm jwsAlgorithm;
+    String signingKeyId;
+    JWSSigner signer;
+    Map<String, JWSVerifier> verifiers = new HashMap<>();
+    JWSVerifier macVerifier;
+    JWKSet publicJwkSet = new JWKSet();
+
+    @PostConstruct
+    void init() throws JOSEException, IOException, ParseException {
+        jwsAlgorithm = JWSAlgorithm.parse(algorithm);
+
+        if (JWSAlgorithm.Family.HMAC_SHA.contains(jwsAlgorithm)) {
+            signer = new MACSigner(signerKey.getBytes());
+            macVerifier = new MACVerifier(signerKey.getBytes());
+            return;
+        }
+
+        List<JWK> keys = new ArrayList<>(loadKeys().getKeys());
+        if (keys.stream().anyMatch(key -> Objects.isNull(key.getKeyID())))
+            throw new IllegalStateException("Every key in the JWK set needs a kid");
+
+        JWK signingKey = keys.stream()
+                .filter(key -> Objects.isNull(keyId) || keyId.equals(key.getKeyID()))
+                .filter(JWK::isPrivate)
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("No private key for " + jwsAlgorithm
+                        + (Objects.isNull(keyId) ? "" : " with kid " + keyId)));
+
+        signingKeyId = signingKey.getKeyID();
+        signer = createSigner(signingKey);
+        for (JWK key : keys)
+            verifiers.put(key.getKeyID(), createVerifier(key));
+
+        publicJwkSet = new JWKSet(keys.stream().map(JWK::toPublicJWK).toList());
+    }
+
+    public JWSHeader newHeader() {
+        return new JWSHeader.Builder(jwsAlgorithm)
+                .type(JOSEObjectType.JWT)
+                .keyID(signingKeyId)
+                .build();
+    }
+
+    public JWSSigner signer() {
+        return signer;
+    }
+
+    /**
+     * Verifier matching the token header. Tokens announcing another algorithm or an unknown
+     * {@code kid} are rejected outright.
+     */
+    public JWSVerifier verifierFor(JWSHeader header) {
+        if (!jwsAlgorithm.equals(header.getAlgorithm()))
+            throw new AppException(ErrorCode.UNAUTHENTICATED);
+
+        if (Objects.nonNull(macVerifier))
+            return macVerifier;
+
+        JWSVerifier verifier = Objects.isNull(header.getKeyID()) ? null : verifiers.get(header.getKeyID());
+        if (Objects.isNull(verifier))
+            throw new AppException(ErrorCode.UNAUTHENTICATED);
+        return verifier;
+    }
+
+    /**
+     * Public half of the asymmetric keys, empty in HS512 mode.
+     */
+    public JWKSet publicJwkSet() {
+        return publicJwkSet;
+    }
+
+    private JWKSet loadKeys() throws JOSEException, IOException, ParseException {
+        if (Objects.nonNull(jwkSetLocation)) {
+            try (InputStream inputStream = jwkSetLocation.getInputStream()) {
+                return JWKSet.load(inputStream);
+            }
+        }
+
+        log.warn("No jwt.signing.jwk-set-location configured, generated an ephemeral {} key. "
+                + "Tokens will not survive a restart nor verify on other nodes.", jwsAlgorithm);
+
+        JWK generated = JWSAlgorithm.Family.EC.contains(jwsAlgorithm)
+                ? new ECKeyGenerator(Curve.forJWSAlgorithm(jwsAlgorithm).iterator().next())
+                        .keyUse(KeyUse.SIGNATURE).algorithm(jwsAlgorithm).keyIDFromThumbprint(true).generate()
+                : new RSAKeyGenerator(2048)
+                        .keyUse(KeyUse.SIGNATURE).algorithm(jwsAlgorithm).keyIDFromThumbprint(true).generate();
+        return new JWKSet(generated);
+    }
+
+    private JWSSigner createSigner(JWK key) throws JOSEException {
+        if (key instanceof RSAKey rsaKey && JWSAlgorithm.Family.RSA.contains(jwsAlgorithm))
+            return new RSASSASigner(rsaKey);
+        if (key instanceof ECKey ecKey && JWSAlgorithm.Family.EC.contains(jwsAlgorithm))
+            return new ECDSASigner(ecKey);
+        throw new IllegalStateException("Key " + key.getKeyID() + " cannot sign " + jwsAlgorithm);
+    }
+
+    private JWSVerifier createVerifier(JWK key) throws JOSEException {
+        if (key instanceof RSAKey rsaKey)
+            return new RSASSAVerifier(rsaKey.toRSAPublicKey());
+        if (key instanceof ECKey ecKey)
+            return new ECDSAVerifier(ecKey.toECPublicKey());
+        throw new IllegalStateException("Unsupported key type " + key.getKeyType() + " for kid " + key.getKeyID());
+    }
+}
@@ -0,0 +1,35 @@
+package com.luv2code.IdentityService.configuration;
+
+import com.luv2code.IdentityService.authorization.AuthorityIndex;
+import com.luv2code.IdentityService.authorization.HasAuthority;
+import com.luv2code.IdentityService.authorization.HasAuthorityAuthorizationManager;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.security.authorization.method.AuthorizationInterceptorsOrder;
+import org.springframework.security.authorization.method.AuthorizationManagerBeforeMethodInterceptor;
+import org.springframework.util.function.SingletonSupplier;
+
+/**
+ * Registers the {@link HasAuthority} interceptor next to the {@code @PreAuthorize} one that
+ * {@code @EnableMethodSecurity} installs.
+ */
+@Configuration
+public class MethodSecurityConfig {
+
+    // advisors are created before the BeanPostProcessors; AuthorityIndex is looked up on first use so
+    // it still gets post-processed
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    static Advisor hasAuthorityInterceptor(ObjectProvider<AuthorityIndex> authorityIndex) {
+        var interceptor = new AuthorizationManagerBeforeMethodInterceptor(
+                new AnnotationMatchingPointcut(null, HasAuthority.class, true),
+                new HasAuthorityAuthorizationManager(SingletonSupplier.of(authorityIndex::getObject)));
+        interceptor.setOrder(AuthorizationInterceptorsOrder.PRE_AUTHORIZE.getOrder());
+        return interceptor;
+    }
+}
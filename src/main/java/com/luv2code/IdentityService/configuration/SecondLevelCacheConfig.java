@@ -0,0 +1,66 @@
+package com.luv2code.IdentityService.configuration;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Hibernate second-level cache for the role model: Role, Permission and Role.permissions change
+ * rarely and are read on every login, user create and user update. Regions are bounded Caffeine
+ * caches behind JCache, built here rather than from a config file so sizes come from application.yaml
+ * and every application context gets its own cache manager. Writes through JPA keep the regions
+ * consistent on this node; the TTL bounds staleness for changes made on other nodes.
+ */
+@Configuration
+@Slf4j
+public class SecondLevelCacheConfig {
+
+    public static final String ROLE_REGION = "role";
+    public static final String PERMISSION_REGION = "permission";
+    public static final String ROLE_PERMISSIONS_REGION = "role.permissions";
+
+    static final List<String> REGIONS = List.of(ROLE_REGION, PERMISSION_REGION, ROLE_PERMISSIONS_REGION);
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(@Value("${entity-cache.maximum-size:10000}") long maximumSize,
+                                              @Value("${entity-cache.ttl:PT5M}") Duration ttl) {
+        var provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        var cacheManager = provider.getCacheManager(
+                URI.create("hibernate-" + UUID.randomUUID()), provider.getDefaultClassLoader());
+
+        for (String region : REGIONS) {
+            var configuration = new CaffeineConfiguration<Object, Object>();
+            configuration.setMaximumSize(OptionalLong.of(maximumSize));
+            configuration.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+            cacheManager.createCache(region, configuration);
+        }
+
+        log.info("Second-level cache regions {}: maximum {} entries each, ttl {}", REGIONS, maximumSize, ttl);
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+            // a new @Cache region must be added to REGIONS, not silently created unbounded
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+}
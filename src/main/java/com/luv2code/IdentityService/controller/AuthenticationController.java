@@ -3,8 +3,10 @@ package com.luv2code.IdentityService.controller;
 import com.luv2code.IdentityService.dto.request.*;
 import com.luv2code.IdentityService.dto.response.AuthenticationResponse;
 import com.luv2code.IdentityService.dto.response.IntrospectResponse;
+import com.luv2code.IdentityService.ratelimit.LoginRateLimiter;
 import com.luv2code.IdentityService.service.AuthenticationService;
 import com.nimbusds.jose.JOSEException;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
@@ -14,6 +16,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.text.ParseException;
+import java.util.List;
 
 @RestController
 @RequestMapping("/auth")
@@ -22,9 +25,13 @@ import java.text.ParseException;
 public class AuthenticationController {
 
     AuthenticationService authenticationService;
+    LoginRateLimiter loginRateLimiter;
 
     @PostMapping("/token")
-    public ApiResponse<AuthenticationResponse> authenticated(@RequestBody AuthenticationRequest request){
+    public ApiResponse<AuthenticationResponse> authenticated(@RequestBody AuthenticationRequest request,
+                                                             HttpServletRequest httpRequest){
+        // before the user query and bcrypt
+        loginRateLimiter.acquire(request.getUsername(), httpRequest.getRemoteAddr());
         var result = authenticationService.authenticate(request);
         return ApiResponse.<AuthenticationResponse>builder()
                 .results(result)
@@ -39,6 +46,14 @@ public class AuthenticationController {
                 .build();
     }
 
+    @PostMapping("/introspect/batch")
+    public ApiResponse<List<IntrospectResponse>> introspectBatch(@RequestBody BatchIntrospectRequest request) {
+        var result = authenticationService.introspect(request);
+        return ApiResponse.<List<IntrospectResponse>>builder()
+                .results(result)
+                .build();
+    }
+
     @PostMapping("/refresh")
     public ApiResponse<AuthenticationResponse> refreshToken(@RequestBody RefreshRequest request) throws ParseException, JOSEException {
         var result = authenticationService.refreshToken(request);
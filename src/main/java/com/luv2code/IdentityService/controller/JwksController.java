@@ -0,0 +1,35 @@
+package com.luv2code.IdentityService.controller;
+
+import com.luv2code.IdentityService.configuration.JwtSigningKeys;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.util.Map;
+
+@RestController
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class JwksController {
+
+    JwtSigningKeys jwtSigningKeys;
+
+    @NonFinal
+    @Value("${jwt.signing.jwks-max-age:PT1H}")
+    Duration jwksMaxAge;
+
+    // plain RFC 7517 document rather than ApiResponse, so standard JWKS clients can read it
+    @GetMapping("/.well-known/jwks.json")
+    public ResponseEntity<Map<String, Object>> jwks() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(jwksMaxAge).cachePublic())
+                .body(jwtSigningKeys.publicJwkSet().toJSONObject());
+    }
+}
@@ -1,9 +1,19 @@
 package com.luv2code.IdentityService.controller;
 
 import com.luv2code.IdentityService.dto.request.ApiResponse;
+import com.luv2code.IdentityService.dto.request.BulkUserCreationRequest;
+import com.luv2code.IdentityService.dto.request.TokenRevocationRequest;
 import com.luv2code.IdentityService.dto.request.UserCreationRequest;
 import com.luv2code.IdentityService.dto.request.UserUpdateRequest;
+import com.luv2code.IdentityService.dto.response.BulkUserCreationResponse;
+import com.luv2code.IdentityService.dto.response.CursorPageResponse;
+import com.luv2code.IdentityService.dto.response.TokenRevocationResponse;
+import com.luv2code.IdentityService.dto.response.UserImportJobResponse;
 import com.luv2code.IdentityService.dto.response.UserResponse;
+import com.luv2code.IdentityService.service.TokenRevocationService;
+import com.luv2code.IdentityService.service.UserExportService;
+import com.luv2code.IdentityService.service.UserImportService;
+import com.luv2code.IdentityService.service.UserProvisioningService;
 import com.luv2code.IdentityService.service.UserService;
 import jakarta.validation.Valid;
 import lombok.AccessLevel;
@@ -11,8 +21,12 @@ import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -25,6 +39,10 @@ public class UserController {
 
         //private static final Logger log = LoggerFactory.getLogger(UserController.class);
         UserService userService;
+        UserExportService userExportService;
+        UserProvisioningService userProvisioningService;
+        UserImportService userImportService;
+        TokenRevocationService tokenRevocationService;
 
     @PostMapping
     public ApiResponse<UserResponse> createUser(@RequestBody @Valid UserCreationRequest request){
@@ -33,18 +51,61 @@ public class UserController {
             .build();
     }
 
+    @PostMapping("/bulk")
+    public ApiResponse<BulkUserCreationResponse> createUsers(@RequestBody BulkUserCreationRequest request){
+        return ApiResponse.<BulkUserCreationResponse>builder()
+                .results(userProvisioningService.createUsers(request))
+                .build();
+    }
+
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ApiResponse<UserImportJobResponse> importUsers(@RequestParam("file") MultipartFile file){
+        return ApiResponse.<UserImportJobResponse>builder()
+                .results(userImportService.startImport(file))
+                .build();
+    }
+
+    @GetMapping("/import/{jobId}")
+    public ApiResponse<UserImportJobResponse> getImportJob(@PathVariable String jobId){
+        return ApiResponse.<UserImportJobResponse>builder()
+                .results(userImportService.getJob(jobId))
+                .build();
+    }
+
+    @PostMapping("/import/{jobId}/resume")
+    public ApiResponse<UserImportJobResponse> resumeImportJob(@PathVariable String jobId){
+        return ApiResponse.<UserImportJobResponse>builder()
+                .results(userImportService.resume(jobId))
+                .build();
+    }
+
+    @PostMapping("/tokens/revoke")
+    public ApiResponse<TokenRevocationResponse> revokeAllTokens(@RequestBody TokenRevocationRequest request){
+        return ApiResponse.<TokenRevocationResponse>builder()
+                .results(tokenRevocationService.revokeAllTokens(request))
+                .build();
+    }
+
     @GetMapping
-    public ApiResponse<List<UserResponse>> getUser(){
+    public ApiResponse<CursorPageResponse<UserResponse>> getUsers(@RequestParam(required = false) String cursor,
+                                                                  @RequestParam(required = false) Integer size){
         var authentication = SecurityContextHolder.getContext().getAuthentication();
 
         log.info("Username: {}", authentication.getName());
         authentication.getAuthorities().forEach(grantedAuthority -> log.info(grantedAuthority.getAuthority()));
 
-        return ApiResponse.<List<UserResponse>>builder()
-                .results(userService.getUser())
+        return ApiResponse.<CursorPageResponse<UserResponse>>builder()
+                .results(userService.getUsers(cursor, size))
                 .build();
     }
 
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportUsers(){
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(userExportService.exportUsers());
+    }
+
     @GetMapping("/{userId}")
     public ApiResponse<UserResponse> getUser(@PathVariable String userId){
         return ApiResponse.<UserResponse>builder()
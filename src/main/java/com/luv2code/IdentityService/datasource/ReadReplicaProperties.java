@@ -0,0 +1,27 @@
+package com.luv2code.IdentityService.datasource;
+
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.experimental.FieldDefaults;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@ConfigurationProperties("datasource.read-replicas")
+public class ReadReplicaProperties {
+
+    List<Replica> replicas = new ArrayList<>();
+
+    @Data
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    public static class Replica {
+        String url;
+        // default to the primary's credentials
+        String username;
+        String password;
+        int maximumPoolSize = 10;
+    }
+}
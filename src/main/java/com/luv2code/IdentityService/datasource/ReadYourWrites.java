@@ -0,0 +1,87 @@
+package com.luv2code.IdentityService.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.function.Supplier;
+
+/**
+ * Read-your-writes on top of replica routing: keys written on this node (a revoked JTI, a created,
+ * updated or deleted user) are remembered for {@code datasource.read-replicas.pin-duration}, which
+ * should exceed the replicas' lag, and reads of such a key run on the primary even inside a read-only
+ * transaction. Pins are node-local. Without replicas everything already runs on the primary and this
+ * is a no-op.
+ */
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ReadYourWrites {
+
+    public enum Kind {
+        TOKEN,
+        USER
+    }
+
+    boolean enabled;
+    Cache<String, Boolean> recentWrites;
+    ThreadLocal<Boolean> primaryRequired = new ThreadLocal<>();
+
+    public ReadYourWrites(@Value("${datasource.read-replicas.enabled:false}") boolean enabled,
+                          @Value("${datasource.read-replicas.pin-duration:PT5S}") Duration pinDuration,
+                          @Value("${datasource.read-replicas.max-pins:100000}") long maxPins) {
+        this.enabled = enabled;
+        this.recentWrites = Caffeine.newBuilder()
+                .expireAfterWrite(pinDuration)
+                .maximumSize(maxPins)
+                .build();
+    }
+
+    /**
+     * Call once the write has been committed, or is about to be.
+     */
+    public void recordWrite(Kind kind, String id) {
+        if (enabled && id != null)
+            recentWrites.put(key(kind, id), Boolean.TRUE);
+    }
+
+    public <T> T read(Kind kind, String id, Supplier<T> read) {
+        return isPinned(kind, id) ? onPrimary(read) : read.get();
+    }
+
+    public <T> T read(Kind kind, Collection<String> ids, Supplier<T> read) {
+        return ids.stream().anyMatch(id -> isPinned(kind, id)) ? onPrimary(read) : read.get();
+    }
+
+    /**
+     * Runs {@code read} on the primary; transactions it starts must not be joined from outside.
+     */
+    public <T> T onPrimary(Supplier<T> read) {
+        Boolean previous = primaryRequired.get();
+        primaryRequired.set(Boolean.TRUE);
+        try {
+            return read.get();
+        } finally {
+            if (previous == null)
+                primaryRequired.remove();
+            else
+                primaryRequired.set(previous);
+        }
+    }
+
+    boolean isPrimaryRequired() {
+        return primaryRequired.get() != null;
+    }
+
+    private boolean isPinned(Kind kind, String id) {
+        return enabled && id != null && recentWrites.getIfPresent(key(kind, id)) != null;
+    }
+
+    private static String key(Kind kind, String id) {
+        return kind.name() + ':' + id;
+    }
+}
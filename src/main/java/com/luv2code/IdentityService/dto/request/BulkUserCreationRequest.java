@@ -0,0 +1,16 @@
+package com.luv2code.IdentityService.dto.request;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class BulkUserCreationRequest {
+    // rows are validated one by one, an invalid row is reported instead of failing the request
+    List<UserCreationRequest> users;
+}
@@ -0,0 +1,15 @@
+package com.luv2code.IdentityService.dto.request;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class TokenRevocationRequest {
+    List<String> usernames;
+}
@@ -0,0 +1,18 @@
+package com.luv2code.IdentityService.dto.response;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class BulkUserCreationResponse {
+    int created;
+    int failed;
+    // one entry per request row, in request order
+    List<BulkUserResult> results;
+}
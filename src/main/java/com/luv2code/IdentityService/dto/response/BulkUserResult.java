@@ -0,0 +1,21 @@
+package com.luv2code.IdentityService.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class BulkUserResult {
+    int index;
+    String username;
+    // set when the user was created
+    String id;
+    // 1000 on success, otherwise the ErrorCode of the failure
+    int code;
+    String message;
+}
@@ -0,0 +1,17 @@
+package com.luv2code.IdentityService.dto.response;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class TokenRevocationResponse {
+    int users;
+    // tokens issued at or before this second are rejected
+    Instant notBefore;
+}
@@ -0,0 +1,26 @@
+package com.luv2code.IdentityService.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.luv2code.IdentityService.enums.ImportJobStatus;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class UserImportJobResponse {
+    String id;
+    String fileName;
+    ImportJobStatus status;
+    long processedLines;
+    long createdRows;
+    long failedRows;
+    String lastError;
+    Instant createdAt;
+    Instant updatedAt;
+}
@@ -2,9 +2,12 @@ package com.luv2code.IdentityService.entity;
 
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
 import lombok.*;
 import lombok.experimental.FieldDefaults;
 
+import java.time.Instant;
 import java.util.Date;
 
 @Getter
@@ -14,8 +17,14 @@ import java.util.Date;
 @AllArgsConstructor
 @FieldDefaults(level = AccessLevel.PRIVATE)
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_invalidated_token_expiry_time", columnList = "expiryTime"),
+        @Index(name = "idx_invalidated_token_revoked_at", columnList = "revokedAt")
+})
 public class InvalidatedToken {
     @Id
     String id;
     Date expiryTime;
+    // lets other nodes poll for revocations made since their last refresh
+    Instant revokedAt;
 }
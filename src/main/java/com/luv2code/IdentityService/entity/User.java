@@ -1,22 +1,31 @@
 package com.luv2code.IdentityService.entity;
 
+import com.luv2code.IdentityService.identifier.GeneratedUuidV7;
 import jakarta.persistence.*;
 import lombok.*;
 import lombok.experimental.FieldDefaults;
 
 import java.time.LocalDate;
 import java.util.Set;
+import java.util.UUID;
 
 @Data
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@ToString(onlyExplicitlyIncluded = true)
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 @FieldDefaults(level = AccessLevel.PRIVATE)
 @Entity
+// the bulk provisioning retry relies on it to detect usernames taken concurrently
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_user_username", columnNames = "username"))
 public class User {
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
-    String id;
+    @EqualsAndHashCode.Include
+    @ToString.Include
+    // time-ordered, stored as BINARY(16) on MySQL; exposed as the usual string form
+    @GeneratedUuidV7
+    UUID id;
     String username;
     String password;
     String firstname;
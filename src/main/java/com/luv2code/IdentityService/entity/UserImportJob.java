@@ -0,0 +1,35 @@
+package com.luv2code.IdentityService.entity;
+
+import com.luv2code.IdentityService.enums.ImportJobStatus;
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.time.Instant;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Entity
+public class UserImportJob {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    String id;
+    String fileName;
+    @Enumerated(EnumType.STRING)
+    ImportJobStatus status;
+    // lines of the file already committed, the resume checkpoint
+    long processedLines;
+    long createdRows;
+    long failedRows;
+    // length of the errors file as of the checkpoint; anything past it belongs to an uncommitted chunk
+    long errorsBytes;
+    String lastError;
+    // instance running the job, null when none; updatedAt is its heartbeat, a claim older than the lease is taken over
+    String owner;
+    Instant createdAt;
+    Instant updatedAt;
+}
@@ -0,0 +1,28 @@
+package com.luv2code.IdentityService.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.time.Instant;
+
+/**
+ * Tokens of {@code username} issued at or before {@code notBefore} (to the second, as {@code iat}) are
+ * rejected. One row per user, moved forward on every "log out everywhere".
+ */
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Entity
+@Table(indexes = @Index(name = "idx_user_revocation_epoch_not_before", columnList = "notBefore"))
+public class UserRevocationEpoch {
+    @Id
+    String username;
+    Instant notBefore;
+}
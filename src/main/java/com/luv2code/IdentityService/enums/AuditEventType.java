@@ -0,0 +1,8 @@
+package com.luv2code.IdentityService.enums;
+
+public enum AuditEventType {
+    LOGIN,
+    LOGIN_FAILURE, // detail holds the reason, as tagged in auth.authenticate.failures
+    REFRESH,
+    LOGOUT
+}
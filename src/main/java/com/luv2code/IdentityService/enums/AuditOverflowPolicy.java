@@ -0,0 +1,6 @@
+package com.luv2code.IdentityService.enums;
+
+public enum AuditOverflowPolicy {
+    DROP, // a full audit buffer drops the event, the request never waits
+    BLOCK // wait up to audit.block-timeout for the writer to make room, then drop
+}
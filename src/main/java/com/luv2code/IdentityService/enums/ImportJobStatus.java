@@ -0,0 +1,8 @@
+package com.luv2code.IdentityService.enums;
+
+public enum ImportJobStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
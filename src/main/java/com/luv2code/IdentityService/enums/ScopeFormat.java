@@ -0,0 +1,6 @@
+package com.luv2code.IdentityService.enums;
+
+public enum ScopeFormat {
+    FULL, // "scope" lists every role and permission
+    ROLES // "roles" lists role names only, expanded by CustomJwtDecoder
+}
@@ -19,7 +19,12 @@ public enum ErrorCode {
     USER_NOT_EXISTED(1006, "User not existed", HttpStatus.NOT_FOUND),
     UNAUTHENTICATED(1007, "Unauthenticated", HttpStatus.UNAUTHORIZED),
     UNAUTHORIZED(1008, "You don't have permission", HttpStatus.FORBIDDEN),
-    INVALID_DOB(1009, "Your age must be at least {min}", HttpStatus.BAD_REQUEST)
+    INVALID_DOB(1009, "Your age must be at least {min}", HttpStatus.BAD_REQUEST),
+    BATCH_TOO_LARGE(1010, "Too many items in one request", HttpStatus.BAD_REQUEST),
+    SERVICE_BUSY(1011, "Service busy, please retry later", HttpStatus.SERVICE_UNAVAILABLE),
+    INVALID_CURSOR(1012, "Invalid page cursor", HttpStatus.BAD_REQUEST),
+    IMPORT_JOB_NOT_FOUND(1013, "Import job not found", HttpStatus.NOT_FOUND),
+    TOO_MANY_LOGIN_ATTEMPTS(1014, "Too many login attempts, please retry later", HttpStatus.TOO_MANY_REQUESTS)
     ;
 
     int code;
@@ -0,0 +1,41 @@
+package com.luv2code.IdentityService.identifier;
+
+import java.nio.ByteBuffer;
+import java.security.SecureRandom;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * RFC 9562 version 7 UUIDs: 48 bits of Unix epoch milliseconds, then a 12 bit counter, then 62
+ * random bits. Ids generated by one JVM are strictly increasing, so inserts keyed by them append
+ * to the end of a B-tree index instead of landing on random pages.
+ */
+public final class UuidV7 {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    // unix millis << 12 | counter of the last id handed out
+    private static final AtomicLong LAST = new AtomicLong();
+
+    private UuidV7() {}
+
+    public static UUID randomUuid() {
+        long timeAndCounter = LAST.updateAndGet(last -> Math.max(System.currentTimeMillis() << 12, last + 1));
+
+        // when the 12 bit counter overflows it carries into the timestamp, ids stay ordered
+        long msb = (timeAndCounter >>> 12) << 16
+                | 0x7000L
+                | (timeAndCounter & 0xFFFL);
+        long lsb = (RANDOM.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+
+        return new UUID(msb, lsb);
+    }
+
+    // big-endian, the layout of BINARY(16) / UUID_TO_BIN(id) without swapping
+    public static byte[] toBytes(UUID uuid) {
+        return ByteBuffer.allocate(16)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+    }
+}
@@ -0,0 +1,10 @@
+package com.luv2code.IdentityService.mapper;
+
+import com.luv2code.IdentityService.dto.response.UserImportJobResponse;
+import com.luv2code.IdentityService.entity.UserImportJob;
+import org.mapstruct.Mapper;
+
+@Mapper(componentModel = "spring")
+public interface UserImportJobMapper {
+    UserImportJobResponse toUserImportJobResponse(UserImportJob job);
+}
@@ -0,0 +1,144 @@
+package com.luv2code.IdentityService.ratelimit;
+
+import com.luv2code.IdentityService.exception.AppException;
+import com.luv2code.IdentityService.exception.ErrorCode;
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Token buckets per username and per client IP in front of {@code /auth/token}, checked before the
+ * user query and bcrypt. Buckets are lock-free ({@link TokenBucket}) in a ConcurrentHashMap; full
+ * buckets carry no state and are swept periodically, and each table is capped at
+ * {@code login-rate-limit.max-buckets}: past the cap new keys share a single overflow bucket until the
+ * next sweep frees room, so a spray of usernames or addresses neither grows the heap nor slips past the
+ * limit.
+ */
+@Component
+@Slf4j
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class LoginRateLimiter {
+
+    public enum Key {
+        USERNAME,
+        IP
+    }
+
+    Clock clock;
+    boolean enabled;
+    int maxBuckets;
+    Buckets byUsername;
+    Buckets byIp;
+
+    public LoginRateLimiter(MeterRegistry meterRegistry,
+                            @Value("${login-rate-limit.enabled:true}") boolean enabled,
+                            @Value("${login-rate-limit.username.capacity:10}") int usernameCapacity,
+                            @Value("${login-rate-limit.username.refill-interval:PT6S}") Duration usernameInterval,
+                            @Value("${login-rate-limit.ip.capacity:100}") int ipCapacity,
+                            @Value("${login-rate-limit.ip.refill-interval:PT0.1S}") Duration ipInterval,
+                            @Value("${login-rate-limit.max-buckets:100000}") int maxBuckets) {
+        this.clock = meterRegistry.config().clock();
+        this.enabled = enabled;
+        this.maxBuckets = maxBuckets;
+        this.byUsername = new Buckets(meterRegistry, Key.USERNAME, usernameCapacity, usernameInterval);
+        this.byIp = new Buckets(meterRegistry, Key.IP, ipCapacity, ipInterval);
+
+        log.info("Login rate limit {}: {} per {} per username, {} per {} per IP", enabled ? "on" : "off",
+                usernameCapacity, usernameInterval, ipCapacity, ipInterval);
+    }
+
+    /**
+     * Takes one token from the client's bucket and the username's bucket.
+     *
+     * @throws AppException {@link ErrorCode#TOO_MANY_LOGIN_ATTEMPTS} when either is empty
+     */
+    public void acquire(String username, String clientIp) {
+        if (!enabled)
+            return;
+
+        long now = clock.monotonicTime();
+        if (!byIp.tryAcquire(clientIp, now) || !byUsername.tryAcquire(normalize(username), now))
+            throw new AppException(ErrorCode.TOO_MANY_LOGIN_ATTEMPTS);
+    }
+
+    @Scheduled(initialDelayString = "${login-rate-limit.sweep-interval:PT1M}",
+            fixedDelayString = "${login-rate-limit.sweep-interval:PT1M}")
+    public void sweep() {
+        long now = clock.monotonicTime();
+        byUsername.sweep(now);
+        byIp.sweep(now);
+    }
+
+    private static String normalize(String username) {
+        return username == null ? "" : username.trim().toLowerCase(Locale.ROOT);
+    }
+
+    @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+    private class Buckets {
+
+        Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+        long intervalNanos;
+        long toleranceNanos;
+        Counter rejections;
+        // charged for every key without a bucket of its own while the table is full
+        TokenBucket overflow;
+        Counter overflowed;
+
+        Buckets(MeterRegistry meterRegistry, Key key, int capacity, Duration interval) {
+            this.intervalNanos = interval.toNanos();
+            this.toleranceNanos = intervalNanos * Math.max(0, capacity - 1);
+            this.overflow = new TokenBucket(clock.monotonicTime());
+
+            String tag = key.name().toLowerCase(Locale.ROOT);
+            this.rejections = Counter.builder("auth.ratelimit.rejections")
+                    .description("Login attempts rejected by the rate limiter")
+                    .tag("key", tag)
+                    .register(meterRegistry);
+            this.overflowed = Counter.builder("auth.ratelimit.overflow")
+                    .description("Login attempts charged to the shared overflow bucket because the table was full")
+                    .tag("key", tag)
+                    .register(meterRegistry);
+            Gauge.builder("auth.ratelimit.buckets", buckets, Map::size)
+                    .description("Rate-limit buckets currently held")
+                    .tag("key", tag)
+                    .register(meterRegistry);
+        }
+
+        boolean tryAcquire(String key, long now) {
+            if (key == null)
+                return true;
+
+            var bucket = buckets.get(key);
+            if (bucket == null) {
+                if (buckets.size() >= maxBuckets) {
+                    overflowed.increment();
+                    bucket = overflow;
+                } else {
+                    bucket = buckets.computeIfAbsent(key, k -> new TokenBucket(now));
+                }
+            }
+
+            if (bucket.tryAcquire(now, intervalNanos, toleranceNanos))
+                return true;
+            rejections.increment();
+            return false;
+        }
+
+        // a token taken from a bucket while it is being removed is forgotten, which only errs towards allowing
+        void sweep(long now) {
+            buckets.values().removeIf(bucket -> bucket.isFull(now));
+        }
+    }
+}
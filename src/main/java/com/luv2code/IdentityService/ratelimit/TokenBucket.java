@@ -0,0 +1,37 @@
+package com.luv2code.IdentityService.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket kept as a single CAS-updated long (the generic cell rate algorithm): instead of a token
+ * count and a refill timestamp it stores the time at which the bucket will be full again. A request
+ * fits if that time is at most {@code capacity - 1} intervals ahead of now, and pushes it one interval
+ * further.
+ */
+final class TokenBucket {
+
+    // "full again at", in the limiter clock's nanoseconds
+    private final AtomicLong fullAt;
+
+    TokenBucket(long now) {
+        this.fullAt = new AtomicLong(now);
+    }
+
+    boolean tryAcquire(long now, long intervalNanos, long toleranceNanos) {
+        while (true) {
+            long current = fullAt.get();
+            long start = Math.max(current, now);
+            if (start - now > toleranceNanos)
+                return false;
+            if (fullAt.compareAndSet(current, start + intervalNanos))
+                return true;
+        }
+    }
+
+    /**
+     * A full bucket behaves exactly like a missing one, so it can be dropped.
+     */
+    boolean isFull(long now) {
+        return fullAt.get() <= now;
+    }
+}
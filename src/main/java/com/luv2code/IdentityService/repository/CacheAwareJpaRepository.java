@@ -0,0 +1,41 @@
+package com.luv2code.IdentityService.repository;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.springframework.data.jpa.repository.support.JpaEntityInformation;
+import org.springframework.data.jpa.repository.support.SimpleJpaRepository;
+import org.springframework.data.util.Streamable;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Repository base class whose {@code findAllById} goes through Hibernate's multi-load instead of an
+ * {@code IN} query: ids already in the persistence context or the second-level cache are resolved
+ * without touching the database, the rest are fetched in batches.
+ */
+public class CacheAwareJpaRepository<T, ID> extends SimpleJpaRepository<T, ID> {
+
+    private final JpaEntityInformation<T, ?> entityInformation;
+    private final EntityManager entityManager;
+
+    public CacheAwareJpaRepository(JpaEntityInformation<T, ?> entityInformation, EntityManager entityManager) {
+        super(entityInformation, entityManager);
+        this.entityInformation = entityInformation;
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public List<T> findAllById(Iterable<ID> ids) {
+        List<ID> distinctIds = Streamable.of(ids).stream().distinct().toList();
+        if (distinctIds.isEmpty())
+            return List.of();
+
+        return entityManager.unwrap(Session.class)
+                .byMultipleIds(entityInformation.getJavaType())
+                .multiLoad(distinctIds)
+                .stream()
+                .filter(Objects::nonNull)
+                .toList();
+    }
+}
@@ -2,8 +2,28 @@ package com.luv2code.IdentityService.repository;
 
 import com.luv2code.IdentityService.entity.InvalidatedToken;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+// query methods run read-only so they can be routed to a read replica
 @Repository
+@Transactional(readOnly = true)
 public interface InvalidatedTokenRepository extends JpaRepository<InvalidatedToken, String> {
+
+    @Query("select t.id from InvalidatedToken t where t.expiryTime > :now")
+    Stream<String> streamIdsByExpiryTimeAfter(Date now);
+
+    @Query("select t.id from InvalidatedToken t where t.id in :ids")
+    Set<String> findIdsByIdIn(Collection<String> ids);
+
+    @Query("select t.id from InvalidatedToken t where t.revokedAt >= :since")
+    List<String> findIdsByRevokedAtGreaterThanEqual(Instant since);
 }
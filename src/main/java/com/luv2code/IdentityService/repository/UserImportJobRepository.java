@@ -0,0 +1,38 @@
+package com.luv2code.IdentityService.repository;
+
+import com.luv2code.IdentityService.entity.UserImportJob;
+import com.luv2code.IdentityService.enums.ImportJobStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Every read stays on the primary: a job is read back right after it is saved, and a stale copy
+ * would be saved over the newer state. The inherited reads are redeclared read-write because
+ * SimpleJpaRepository's read-only transactions would route them to a replica.
+ */
+@Repository
+public interface UserImportJobRepository extends JpaRepository<UserImportJob, String> {
+    List<UserImportJob> findByStatusIn(Collection<ImportJobStatus> statuses);
+
+    /**
+     * Atomically makes {@code owner} the instance running the job, unless it is completed or another
+     * instance has renewed its claim since {@code staleBefore}. Returns 1 when claimed.
+     */
+    @Modifying(clearAutomatically = true)
+    @Transactional
+    @Query("update UserImportJob j set j.owner = :owner, j.updatedAt = :now where j.id = :id and j.status <> :completed"
+            + " and (j.owner is null or j.owner = :owner or j.updatedAt < :staleBefore)")
+    int claim(String id, String owner, Instant now, Instant staleBefore, ImportJobStatus completed);
+
+    @Override
+    @Transactional
+    Optional<UserImportJob> findById(String id);
+}
@@ -1,13 +1,62 @@
 package com.luv2code.IdentityService.repository;
 
 import com.luv2code.IdentityService.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
 
+/**
+ * Fetch plans per use case:
+ * <ul>
+ *     <li>login / token refresh: user + role names, permissions come from the scope cache</li>
+ *     <li>single-user read: user + roles + permissions in one statement</li>
+ *     <li>list: keyset page on the primary key, roles and permissions batch fetched
+ *     (hibernate.default_batch_fetch_size)</li>
+ *     <li>export: forward-only scroll over the whole table, read only, no entity graph</li>
+ * </ul>
+ * Query methods run in read-only transactions so they can be routed to a read replica; the inherited
+ * writes keep SimpleJpaRepository's read-write ones.
+ */
 @Repository
-public interface UserRepository extends JpaRepository<User, String> {
+@Transactional(readOnly = true)
+public interface UserRepository extends JpaRepository<User, UUID> {
     boolean existsByUsername(String username);
+
+    @Query("select u.username from User u where u.username in :usernames")
+    Set<String> findExistingUsernames(Collection<String> usernames);
+
+    @EntityGraph(attributePaths = {"roles", "roles.permissions"})
     Optional<User> findByUsername(String username);
+
+    @EntityGraph(attributePaths = "roles")
+    Optional<User> findWithRolesByUsername(String username);
+
+    @Override
+    @EntityGraph(attributePaths = {"roles", "roles.permissions"})
+    Optional<User> findById(UUID id);
+
+    List<User> findAllByOrderByIdAsc(Limit limit);
+
+    List<User> findByIdGreaterThanOrderByIdAsc(UUID id, Limit limit);
+
+    // must be consumed inside a transaction; on MySQL the fetch size only takes effect with useCursorFetch=true
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select u from User u order by u.id")
+    Stream<User> streamAll();
 }
@@ -0,0 +1,29 @@
+package com.luv2code.IdentityService.repository;
+
+import com.luv2code.IdentityService.entity.UserRevocationEpoch;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Every read stays on the primary, a replica behind it could miss a fresh "log out everywhere".
+ * The inherited reads are redeclared read-write because SimpleJpaRepository's read-only
+ * transactions would route them to a replica.
+ */
+@Repository
+public interface UserRevocationEpochRepository extends JpaRepository<UserRevocationEpoch, String> {
+
+    List<UserRevocationEpoch> findByNotBeforeGreaterThanEqual(Instant since);
+
+    @Override
+    @Transactional
+    Optional<UserRevocationEpoch> findById(String username);
+
+    @Override
+    @Transactional
+    List<UserRevocationEpoch> findAll();
+}
@@ -0,0 +1,136 @@
+package com.luv2code.IdentityService.service;
+
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Timers for each phase of the token endpoints, so a slow login can be pinned on the user query,
+ * bcrypt (including the wait for a hashing thread), scope building, signing or the revocation check.
+ * All meters are registered up front; percentile histograms are switched on in application.yaml.
+ */
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class AuthenticationMetrics {
+
+    public enum Operation {
+        AUTHENTICATE,
+        VERIFY,
+        REFRESH,
+        LOGOUT
+    }
+
+    public enum Phase {
+        USER_LOOKUP,
+        PASSWORD_CHECK,
+        SCOPE_BUILD,
+        TOKEN_SIGN,
+        SIGNATURE_VERIFY,
+        REVOCATION_CHECK,
+        REVOCATION_PERSIST
+    }
+
+    public enum Failure {
+        UNKNOWN_USER,
+        BAD_PASSWORD
+    }
+
+    Clock clock;
+    Map<Phase, Timer> phaseTimers = new EnumMap<>(Phase.class);
+    Map<Operation, Timer> succeeded = new EnumMap<>(Operation.class);
+    Map<Operation, Timer> failed = new EnumMap<>(Operation.class);
+    Map<Failure, Counter> authenticationFailures = new EnumMap<>(Failure.class);
+    Counter verificationCacheHits;
+    Counter verificationCacheMisses;
+
+    public AuthenticationMetrics(MeterRegistry meterRegistry) {
+        this.clock = meterRegistry.config().clock();
+
+        for (Phase phase : Phase.values())
+            phaseTimers.put(phase, Timer.builder("auth.phase.duration")
+                    .description("Time spent in one phase of a token operation")
+                    .tag("phase", tagValue(phase))
+                    .register(meterRegistry));
+
+        for (Operation operation : Operation.values()) {
+            succeeded.put(operation, operationTimer(meterRegistry, operation, "success"));
+            failed.put(operation, operationTimer(meterRegistry, operation, "failure"));
+        }
+
+        for (Failure failure : Failure.values())
+            authenticationFailures.put(failure, Counter.builder("auth.authenticate.failures")
+                    .description("Rejected logins by reason")
+                    .tag("reason", tagValue(failure))
+                    .register(meterRegistry));
+
+        this.verificationCacheHits = verificationCacheCounter(meterRegistry, "hit");
+        this.verificationCacheMisses = verificationCacheCounter(meterRegistry, "miss");
+    }
+
+    public long start() {
+        return clock.monotonicTime();
+    }
+
+    public <T> T time(Phase phase, Supplier<T> step) {
+        long start = start();
+        try {
+            return step.get();
+        } finally {
+            record(phase, start);
+        }
+    }
+
+    public void time(Phase phase, Runnable step) {
+        long start = start();
+        try {
+            step.run();
+        } finally {
+            record(phase, start);
+        }
+    }
+
+    public void record(Phase phase, long start) {
+        phaseTimers.get(phase).record(clock.monotonicTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    public void record(Operation operation, long start, boolean success) {
+        (success ? succeeded : failed).get(operation).record(clock.monotonicTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    public void authenticationFailed(Failure failure) {
+        authenticationFailures.get(failure).increment();
+    }
+
+    public void verificationCacheLookup(boolean hit) {
+        (hit ? verificationCacheHits : verificationCacheMisses).increment();
+    }
+
+    private static Timer operationTimer(MeterRegistry meterRegistry, Operation operation, String outcome) {
+        return Timer.builder("auth.operation.duration")
+                .description("End-to-end time of a token operation inside AuthenticationService")
+                .tag("operation", tagValue(operation))
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static Counter verificationCacheCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("auth.verify.cache")
+                .description("Token verifications answered from, or missing, the verification cache")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private static String tagValue(Enum<?> value) {
+        return value.name().toLowerCase(Locale.ROOT);
+    }
+}
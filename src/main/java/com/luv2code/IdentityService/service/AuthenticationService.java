@@ -1,20 +1,32 @@
 package com.luv2code.IdentityService.service;
 
+import com.luv2code.IdentityService.audit.AuditLog;
+import com.luv2code.IdentityService.cache.RevokedTokenFilter;
+import com.luv2code.IdentityService.cache.RoleScopeCache;
+import com.luv2code.IdentityService.cache.TokenVerificationCache;
+import com.luv2code.IdentityService.cache.UserRevocationEpochs;
+import com.luv2code.IdentityService.configuration.JwtSigningKeys;
+import com.luv2code.IdentityService.datasource.ReadYourWrites;
 import com.luv2code.IdentityService.dto.request.AuthenticationRequest;
+import com.luv2code.IdentityService.dto.request.BatchIntrospectRequest;
 import com.luv2code.IdentityService.dto.request.IntrospectRequest;
 import com.luv2code.IdentityService.dto.request.LogoutRequest;
 import com.luv2code.IdentityService.dto.request.RefreshRequest;
 import com.luv2code.IdentityService.dto.response.AuthenticationResponse;
 import com.luv2code.IdentityService.dto.response.IntrospectResponse;
 import com.luv2code.IdentityService.entity.InvalidatedToken;
+import com.luv2code.IdentityService.entity.Role;
 import com.luv2code.IdentityService.entity.User;
+import com.luv2code.IdentityService.enums.AuditEventType;
+import com.luv2code.IdentityService.enums.ScopeFormat;
 import com.luv2code.IdentityService.exception.AppException;
 import com.luv2code.IdentityService.exception.ErrorCode;
 import com.luv2code.IdentityService.repository.InvalidatedTokenRepository;
 import com.luv2code.IdentityService.repository.UserRepository;
+import com.luv2code.IdentityService.service.AuthenticationMetrics.Failure;
+import com.luv2code.IdentityService.service.AuthenticationMetrics.Operation;
+import com.luv2code.IdentityService.service.AuthenticationMetrics.Phase;
 import com.nimbusds.jose.*;
-import com.nimbusds.jose.crypto.MACSigner;
-import com.nimbusds.jose.crypto.MACVerifier;
 import com.nimbusds.jwt.JWTClaimsSet;
 import com.nimbusds.jwt.SignedJWT;
 import lombok.AccessLevel;
@@ -24,17 +36,14 @@ import lombok.experimental.NonFinal;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.util.CollectionUtils;
 
 import java.text.ParseException;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
-import java.util.Date;
-import java.util.StringJoiner;
-import java.util.UUID;
+import java.util.*;
+import java.util.stream.IntStream;
 
 @Service
 @RequiredArgsConstructor
@@ -42,12 +51,19 @@ import java.util.UUID;
 public class AuthenticationService {
 
     private static final Logger log = LoggerFactory.getLogger(AuthenticationService.class);
+    public static final String SCOPE_CLAIM = "scope";
+    public static final String ROLES_CLAIM = "roles";
     UserRepository userRepository;
     InvalidatedTokenRepository invalidatedTokenRepository;
-
-    @NonFinal
-    @Value("${jwt.signerKey}")
-    protected String SIGNER_KEY;
+    TokenVerificationCache tokenVerificationCache;
+    RevokedTokenFilter revokedTokenFilter;
+    UserRevocationEpochs userRevocationEpochs;
+    JwtSigningKeys jwtSigningKeys;
+    PasswordHashingService passwordHashingService;
+    RoleScopeCache roleScopeCache;
+    ReadYourWrites readYourWrites;
+    AuthenticationMetrics metrics;
+    AuditLog auditLog;
 
     @NonFinal
     @Value("${jwt.valid-duration}")
@@ -57,6 +73,14 @@ public class AuthenticationService {
     @Value("${jwt.refreshable-duration}")
     protected long REFRESHABLE_DURATION;
 
+    @NonFinal
+    @Value("${jwt.introspect.max-batch-size:500}")
+    protected int MAX_BATCH_SIZE;
+
+    @NonFinal
+    @Value("${jwt.scope-format:full}")
+    protected ScopeFormat SCOPE_FORMAT = ScopeFormat.FULL;
+
     public IntrospectResponse introspect(IntrospectRequest request) throws JOSEException, ParseException {
         var token = request.getToken();
 
@@ -71,46 +95,180 @@ public class AuthenticationService {
                 .build();
     }
 
-    public AuthenticationResponse authenticate(AuthenticationRequest request){
-        var user = userRepository.findByUsername(request.getUsername())
-                .orElseThrow(() -> new AppException(ErrorCode.USER_NOT_EXISTED));
-
-        PasswordEncoder passwordEncoder = new BCryptPasswordEncoder(10);
-        boolean authenticated = passwordEncoder.matches(request.getPassword(), user.getPassword());
-
-        if(!authenticated)
-            throw new AppException(ErrorCode.UNAUTHENTICATED);
-
-        var token = generateToken(user); //request.getUsername()
+    /**
+     * Introspects many tokens at once: signatures are checked in parallel, then every surviving
+     * JTI is resolved against InvalidatedToken with a single IN query. Results keep the request order.
+     */
+    public List<IntrospectResponse> introspect(BatchIntrospectRequest request) {
+        var tokens = request.getTokens();
+        if (CollectionUtils.isEmpty(tokens))
+            return List.of();
+        if (tokens.size() > MAX_BATCH_SIZE)
+            throw new AppException(ErrorCode.BATCH_TOO_LARGE);
+
+        SignedJWT[] verified = new SignedJWT[tokens.size()];
+        boolean[] fromCache = new boolean[tokens.size()];
+
+        IntStream.range(0, tokens.size()).parallel().forEach(i -> {
+            var token = tokens.get(i);
+            if (token == null)
+                return;
+
+            var cached = tokenVerificationCache.get(token);
+            if (cached != null) {
+                verified[i] = cached.signedJWT();
+                fromCache[i] = true;
+                return;
+            }
+
+            try {
+                verified[i] = verifySignatureAndExpiry(token, false);
+            } catch (ParseException | JOSEException | RuntimeException e) {
+                tokenVerificationCache.putRejected(token);
+            }
+        });
+
+        // cached entries only when the filter has since picked up a possible revocation, e.g. from another node
+        Map<Integer, String> pendingJtis = new HashMap<>();
+        for (int i = 0; i < verified.length; i++) {
+            if (verified[i] == null)
+                continue;
+            String jti = jwtId(verified[i]);
+            if (!fromCache[i] || revokedTokenFilter.mightBeRevoked(jti))
+                pendingJtis.put(i, jti);
+        }
+        Set<String> revoked = revokedTokenFilter.findRevoked(pendingJtis.values());
+
+        List<IntrospectResponse> responses = new ArrayList<>(tokens.size());
+        for (int i = 0; i < verified.length; i++) {
+            boolean isValid = verified[i] != null && !isRevokedForUser(verified[i])
+                    && !(pendingJtis.containsKey(i) && revoked.contains(pendingJtis.get(i)));
+
+            if (verified[i] != null && !(fromCache[i] && isValid)) {
+                if (isValid)
+                    tokenVerificationCache.putVerified(tokens.get(i), verified[i], expirationTime(verified[i]));
+                else
+                    tokenVerificationCache.putRejected(tokens.get(i));
+            }
+
+            responses.add(IntrospectResponse.builder()
+                    .valid(isValid)
+                    .build());
+        }
+        return responses;
+    }
 
-        return AuthenticationResponse.builder()
-                .token(token)
-                .authenticated(true)
-                .build();
+    public AuthenticationResponse authenticate(AuthenticationRequest request){
+        long start = metrics.start();
+        boolean success = false;
+        try {
+            long scopeVersion = roleScopeCache.getVersion();
+            var user = metrics.time(Phase.USER_LOOKUP, () -> findWithRolesByUsername(request.getUsername()))
+                    .orElseThrow(() -> {
+                        authenticationFailed(Failure.UNKNOWN_USER, request.getUsername());
+                        return new AppException(ErrorCode.USER_NOT_EXISTED);
+                    });
+
+            boolean authenticated = metrics.time(Phase.PASSWORD_CHECK,
+                    () -> passwordHashingService.matches(request.getPassword(), user.getPassword()));
+
+            if(!authenticated) {
+                authenticationFailed(Failure.BAD_PASSWORD, user.getUsername());
+                throw new AppException(ErrorCode.UNAUTHENTICATED);
+            }
+
+            var token = generateToken(user, scopeVersion); //request.getUsername()
+
+            auditLog.publish(AuditEventType.LOGIN, user.getUsername(), null);
+            success = true;
+            return AuthenticationResponse.builder()
+                    .token(token)
+                    .authenticated(true)
+                    .build();
+        } finally {
+            metrics.record(Operation.AUTHENTICATE, start, success);
+        }
     }
 
     public void logout(LogoutRequest request) throws ParseException, JOSEException {
+        long start = metrics.start();
+        boolean success = false;
         try{
             var signToken = verifyToken(request.getToken(), true);
 
-            String jit = signToken.getJWTClaimsSet().getJWTID();
-            Date expiryTime = signToken.getJWTClaimsSet().getExpirationTime();
-
-            InvalidatedToken invalidatedToken = InvalidatedToken.builder()
-                    .id(jit)
-                    .expiryTime(expiryTime)
-                    .build();
-
-            invalidatedTokenRepository.save(invalidatedToken);
+            revoke(request.getToken(), signToken);
+            auditLog.publish(AuditEventType.LOGOUT, signToken.getJWTClaimsSet().getSubject(), null);
+            success = true;
         }catch (AppException exception){
             log.info("Token already expired");
+        } finally {
+            metrics.record(Operation.LOGOUT, start, success);
+        }
+    }
+
+
+    public SignedJWT verifyToken(String token, boolean isRefresh) throws JOSEException, ParseException {
+        // refresh/logout use a different expiry window and are rare, keep them off the cache
+        if (isRefresh)
+            return doVerifyToken(token, true);
+
+        long start = metrics.start();
+        boolean success = false;
+        try {
+            var cached = tokenVerificationCache.get(token);
+            metrics.verificationCacheLookup(cached != null);
+            if (cached != null) {
+                // the user's epoch can move after the entry was cached, and another node can revoke the
+                // JTI; its refresh reaches our filter, which keeps this a bit test for almost every hit
+                if (!cached.isValid() || isRevokedForUser(cached.signedJWT()))
+                    throw new AppException(ErrorCode.UNAUTHENTICATED);
+                String jti = jwtId(cached.signedJWT());
+                if (revokedTokenFilter.mightBeRevoked(jti) && revokedTokenFilter.isRevoked(jti)) {
+                    tokenVerificationCache.putRejected(token);
+                    throw new AppException(ErrorCode.UNAUTHENTICATED);
+                }
+                success = true;
+                return cached.signedJWT();
+            }
+
+            SignedJWT signedJWT;
+            try {
+                signedJWT = doVerifyToken(token, false);
+            } catch (AppException | ParseException e) {
+                tokenVerificationCache.putRejected(token);
+                throw e;
+            }
+
+            tokenVerificationCache.putVerified(token, signedJWT, signedJWT.getJWTClaimsSet().getExpirationTime());
+            success = true;
+            return signedJWT;
+        } finally {
+            metrics.record(Operation.VERIFY, start, success);
         }
     }
 
+    private SignedJWT doVerifyToken(String token, boolean isRefresh) throws JOSEException, ParseException {
+        SignedJWT signedJWT = verifySignatureAndExpiry(token, isRefresh);
 
-    private SignedJWT verifyToken(String token, boolean isRefresh) throws JOSEException, ParseException {
-        JWSVerifier verifier = new MACVerifier(SIGNER_KEY.getBytes());
+        var jti = signedJWT.getJWTClaimsSet().getJWTID();
+        if(metrics.time(Phase.REVOCATION_CHECK,
+                () -> isRevokedForUser(signedJWT) || revokedTokenFilter.isRevoked(jti)))
+            throw new AppException(ErrorCode.UNAUTHENTICATED);
+
+        return signedJWT;
+    }
+
+    // everything but the revocation check, which needs the database
+    private SignedJWT verifySignatureAndExpiry(String token, boolean isRefresh) throws JOSEException, ParseException {
+        long start = metrics.start();
+        try {
+            return parseAndVerify(token, isRefresh);
+        } finally {
+            metrics.record(Phase.SIGNATURE_VERIFY, start);
+        }
+    }
 
+    private SignedJWT parseAndVerify(String token, boolean isRefresh) throws JOSEException, ParseException {
         SignedJWT signedJWT = SignedJWT.parse(token);
 
         Date expiryTime = (isRefresh)
@@ -118,84 +276,148 @@ public class AuthenticationService {
                             .plus(REFRESHABLE_DURATION, ChronoUnit.SECONDS).toEpochMilli())
                 : signedJWT.getJWTClaimsSet().getExpirationTime();
 
-        var verified = signedJWT.verify(verifier);
+        var verified = signedJWT.verify(jwtSigningKeys.verifierFor(signedJWT.getHeader()));
 
         if(!(verified && expiryTime.after(new Date())))
             throw new AppException(ErrorCode.UNAUTHENTICATED);
 
-        if(invalidatedTokenRepository.existsById(signedJWT.getJWTClaimsSet().getJWTID()))
-            throw new AppException(ErrorCode.UNAUTHENTICATED);
-
         return signedJWT;
     }
 
 
     public AuthenticationResponse refreshToken(RefreshRequest request)
             throws ParseException, JOSEException {
+        long start = metrics.start();
+        boolean success = false;
+        try {
+            var signedJWT = verifyToken(request.getToken(), true);
 
-         var signedJWT = verifyToken(request.getToken(), true);
+            revoke(request.getToken(), signedJWT);
 
-         var jit = signedJWT.getJWTClaimsSet().getJWTID();
-         var expiryTime = signedJWT.getJWTClaimsSet().getExpirationTime();
+            var username = signedJWT.getJWTClaimsSet().getSubject();
 
-        InvalidatedToken invalidatedToken = InvalidatedToken.builder()
-                .id(jit)
-                .expiryTime(expiryTime)
-                .build();
-        invalidatedTokenRepository.save(invalidatedToken);
+            long scopeVersion = roleScopeCache.getVersion();
+            var user = metrics.time(Phase.USER_LOOKUP, () -> findWithRolesByUsername(username))
+                    .orElseThrow(()-> new AppException(ErrorCode.UNAUTHENTICATED));
+
+            var token = generateToken(user, scopeVersion); //request.getUsername()
 
-        var username = signedJWT.getJWTClaimsSet().getSubject();
+            auditLog.publish(AuditEventType.REFRESH, username, null);
+            success = true;
+            return AuthenticationResponse.builder()
+                    .token(token)
+                    .authenticated(true)
+                    .build();
+        } finally {
+            metrics.record(Operation.REFRESH, start, success);
+        }
+    }
 
-        var user = userRepository.findByUsername(username)
-                .orElseThrow(()-> new AppException(ErrorCode.UNAUTHENTICATED));
+    private void authenticationFailed(Failure failure, String username) {
+        metrics.authenticationFailed(failure);
+        auditLog.publish(AuditEventType.LOGIN_FAILURE, username, failure.name().toLowerCase(Locale.ROOT));
+    }
 
-        var token = generateToken(user); //request.getUsername()
+    // a user created or changed on this node moments ago may not have reached the replicas yet
+    private Optional<User> findWithRolesByUsername(String username) {
+        return readYourWrites.read(ReadYourWrites.Kind.USER, username,
+                () -> userRepository.findWithRolesByUsername(username));
+    }
 
-        return AuthenticationResponse.builder()
-                .token(token)
-                .authenticated(true)
+    private void revoke(String token, SignedJWT signedJWT) throws ParseException {
+        String jit = signedJWT.getJWTClaimsSet().getJWTID();
+        Date expiryTime = signedJWT.getJWTClaimsSet().getExpirationTime();
+
+        InvalidatedToken invalidatedToken = InvalidatedToken.builder()
+                .id(jit)
+                .expiryTime(expiryTime)
+                .revokedAt(Instant.now())
                 .build();
+
+        metrics.time(Phase.REVOCATION_PERSIST, () -> {
+            invalidatedTokenRepository.save(invalidatedToken);
+        });
+        revokedTokenFilter.add(jit);
+        // not evict: a verification racing this logout must not cache the token as valid afterwards
+        tokenVerificationCache.putRejected(token);
     }
 
 
-    private String generateToken(User user){
-        JWSHeader header = new JWSHeader(JWSAlgorithm.HS512);
+    // package-private for AuthenticationServiceBenchmark; scopeVersion is RoleScopeCache's, read before loading user
+    String generateToken(User user, long scopeVersion){
+        JWSHeader header = jwtSigningKeys.newHeader();
 
-        JWTClaimsSet jwtClaimsSet = new JWTClaimsSet.Builder()
+        JWTClaimsSet.Builder claims = new JWTClaimsSet.Builder()
                 .subject(user.getUsername())
                 .issuer("devteria.com")
                 .issueTime(new Date())
                 .expirationTime(new Date(
                         Instant.now().plus(VALID_DURATION, ChronoUnit.SECONDS).toEpochMilli()
                 ))
-                .jwtID(UUID.randomUUID().toString())
-                .claim("scope", buildScope(user))
-                .build();
+                .jwtID(UUID.randomUUID().toString());
 
-        Payload payload = new Payload(jwtClaimsSet.toJSONObject());
+        // compact tokens carry role names only; CustomJwtDecoder expands them into the same scope
+        if (SCOPE_FORMAT == ScopeFormat.ROLES)
+            claims.claim(ROLES_CLAIM, metrics.time(Phase.SCOPE_BUILD, () -> roleNames(user)));
+        else
+            claims.claim(SCOPE_CLAIM, metrics.time(Phase.SCOPE_BUILD, () -> buildScope(user, scopeVersion)));
+
+        Payload payload = new Payload(claims.build().toJSONObject());
 
         JWSObject jwsObject = new JWSObject(header, payload);
 
+        long start = metrics.start();
         try {
-            jwsObject.sign(new MACSigner(SIGNER_KEY.getBytes()));
+            jwsObject.sign(jwtSigningKeys.signer());
             return jwsObject.serialize();
         } catch (JOSEException e) {
             //log.error("Cannot create token ", e);
             throw new RuntimeException(e);
+        } finally {
+            metrics.record(Phase.TOKEN_SIGN, start);
+        }
+    }
+
+    private static String jwtId(SignedJWT signedJWT) {
+        try {
+            return signedJWT.getJWTClaimsSet().getJWTID();
+        } catch (ParseException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // issued at or before the user's last "log out everywhere"
+    private boolean isRevokedForUser(SignedJWT signedJWT) {
+        try {
+            var claims = signedJWT.getJWTClaimsSet();
+            return userRevocationEpochs.isRevoked(claims.getSubject(), claims.getIssueTime());
+        } catch (ParseException e) {
+            throw new IllegalStateException(e);
         }
     }
 
-    private String buildScope(User user){
+    private static Date expirationTime(SignedJWT signedJWT) {
+        try {
+            return signedJWT.getJWTClaimsSet().getExpirationTime();
+        } catch (ParseException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    String buildScope(User user, long scopeVersion){
         StringJoiner stringJoiner = new StringJoiner(" ");
 
         if(!CollectionUtils.isEmpty(user.getRoles()))
-            user.getRoles().forEach(role -> {
-                stringJoiner.add("ROLE_" +  role.getName());
-                if(!CollectionUtils.isEmpty(role.getPermissions()))
-                     role.getPermissions()
-                             .forEach(permission -> stringJoiner.add(permission.getName()));
-            });
+            user.getRoles().forEach(role -> stringJoiner.add(roleScopeCache.fragmentFor(role, scopeVersion)));
 
         return stringJoiner.toString();
     }
+
+    private static List<String> roleNames(User user) {
+        if (CollectionUtils.isEmpty(user.getRoles()))
+            return List.of();
+        return user.getRoles().stream()
+                .map(Role::getName)
+                .toList();
+    }
 }
@@ -0,0 +1,124 @@
+package com.luv2code.IdentityService.service;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Deletes InvalidatedToken rows that can no longer be presented, in small autocommitted
+ * batches so no long-running lock is held on the table. A MySQL named lock makes sure only
+ * one node of the cluster purges at a time.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class InvalidatedTokenPurgeService {
+
+    static final String LOCK_NAME = "identity_service.invalidated_token_purge";
+
+    // a range scan on idx_invalidated_token_expiry_time; no ORDER BY, which H2 cannot parse and
+    // row-based binlogs do not need
+    static final String DELETE_EXPIRED =
+            "DELETE FROM invalidated_token WHERE expiry_time < ? LIMIT ?";
+
+    JdbcTemplate jdbcTemplate;
+
+    @NonFinal
+    @Value("${jwt.valid-duration}")
+    protected long VALID_DURATION;
+
+    @NonFinal
+    @Value("${jwt.refreshable-duration}")
+    protected long REFRESHABLE_DURATION;
+
+    @NonFinal
+    @Value("${jwt.purge.batch-size:1000}")
+    int batchSize;
+
+    @NonFinal
+    @Value("${jwt.purge.batch-pause:50}")
+    long batchPause; // in milliseconds
+
+    @Scheduled(cron = "${jwt.purge.cron:0 */15 * * * *}")
+    public void purgeExpired() {
+        Long deleted = jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            if (!acquireLock(connection)) {
+                log.debug("Invalidated token purge is running on another node, skipping");
+                return 0L;
+            }
+            try {
+                return deleteInBatches(connection, Timestamp.from(purgeCutoff()));
+            } finally {
+                releaseLock(connection);
+            }
+        });
+
+        if (deleted != null && deleted > 0)
+            log.info("Purged {} expired invalidated tokens", deleted);
+    }
+
+    /**
+     * A revoked token stays refreshable until iat + REFRESHABLE_DURATION, which may be later than
+     * its exp, so its row has to outlive exp by the difference.
+     */
+    public Instant purgeCutoff() {
+        long grace = Math.max(0, REFRESHABLE_DURATION - VALID_DURATION);
+        return Instant.now().minus(grace, ChronoUnit.SECONDS);
+    }
+
+    private long deleteInBatches(Connection connection, Timestamp cutoff) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(true);
+
+        long total = 0;
+        try (PreparedStatement statement = connection.prepareStatement(DELETE_EXPIRED)) {
+            int deleted;
+            do {
+                statement.setTimestamp(1, cutoff);
+                statement.setInt(2, batchSize);
+                deleted = statement.executeUpdate();
+                total += deleted;
+
+                if (deleted == batchSize && batchPause > 0)
+                    Thread.sleep(batchPause);
+            } while (deleted == batchSize);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+        return total;
+    }
+
+    private boolean acquireLock(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT GET_LOCK(?, 0)")) {
+            statement.setString(1, LOCK_NAME);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() && resultSet.getInt(1) == 1;
+            }
+        }
+    }
+
+    private void releaseLock(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+            statement.setString(1, LOCK_NAME);
+            statement.executeQuery().close();
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.luv2code.IdentityService.service;
+
+import com.luv2code.IdentityService.exception.AppException;
+import com.luv2code.IdentityService.exception.ErrorCode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Runs bcrypt on a dedicated, CPU-sized pool with a bounded queue so a login storm cannot use up
+ * every servlet thread. When the queue is full callers fail fast with {@link ErrorCode#SERVICE_BUSY}.
+ */
+@Service
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class PasswordHashingService {
+
+    static final long BULK_BACKOFF_MILLIS = 5;
+
+    PasswordEncoder passwordEncoder;
+    ThreadPoolExecutor executor;
+    ExecutorService monitoredExecutor;
+    Duration timeout;
+
+    Timer encodeTimer;
+    Timer matchesTimer;
+    Counter rejected;
+
+    public PasswordHashingService(PasswordEncoder passwordEncoder,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${password-hashing.pool-size:0}") int poolSize,
+                                  @Value("${password-hashing.queue-capacity:64}") int queueCapacity,
+                                  @Value("${password-hashing.timeout:PT10S}") Duration timeout) {
+        this.passwordEncoder = passwordEncoder;
+        this.timeout = timeout;
+
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("password-hashing-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.monitoredExecutor = ExecutorServiceMetrics.monitor(meterRegistry, executor, "password.hashing");
+
+        this.encodeTimer = hashTimer(meterRegistry, "encode");
+        this.matchesTimer = hashTimer(meterRegistry, "matches");
+        this.rejected = Counter.builder("password.hashing.rejected")
+                .description("Hash requests rejected because the queue was full")
+                .register(meterRegistry);
+    }
+
+    public String encode(String rawPassword) {
+        return run(encodeTimer, () -> passwordEncoder.encode(rawPassword));
+    }
+
+    public boolean matches(String rawPassword, String encodedPassword) {
+        return run(matchesTimer, () -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * Hashes many passwords on the same pool. At most one task per pool thread is in flight for the
+     * call, so a bulk import never fills the queue that logins depend on; if logins fill it anyway
+     * the import backs off instead of failing.
+     */
+    public List<String> encodeAll(List<String> rawPasswords) {
+        var permits = new Semaphore(executor.getMaximumPoolSize());
+        List<Future<String>> futures = new ArrayList<>(rawPasswords.size());
+
+        try {
+            for (String rawPassword : rawPasswords) {
+                permits.acquire();
+                futures.add(submitWithBackoff(() -> {
+                    try {
+                        return encodeTimer.recordCallable(() -> passwordEncoder.encode(rawPassword));
+                    } finally {
+                        permits.release();
+                    }
+                }, permits));
+            }
+            return futures.stream().map(this::await).toList();
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new AppException(ErrorCode.SERVICE_BUSY);
+        } catch (RuntimeException e) {
+            // SERVICE_BUSY or a failed hash: nobody will read the rest, give their threads back to logins
+            futures.forEach(future -> future.cancel(true));
+            throw e;
+        }
+    }
+
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    private <T> T run(Timer timer, Callable<T> task) {
+        return await(submit(timer, task));
+    }
+
+    private <T> Future<T> submit(Timer timer, Callable<T> task) {
+        try {
+            return monitoredExecutor.submit(() -> timer.recordCallable(task));
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new AppException(ErrorCode.SERVICE_BUSY);
+        }
+    }
+
+    private <T> Future<T> submitWithBackoff(Callable<T> task, Semaphore permits) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (true) {
+            try {
+                return monitoredExecutor.submit(task);
+            } catch (RejectedExecutionException e) {
+                if (System.nanoTime() > deadline) {
+                    permits.release();
+                    rejected.increment();
+                    throw new AppException(ErrorCode.SERVICE_BUSY);
+                }
+                Thread.sleep(BULK_BACKOFF_MILLIS);
+            }
+        }
+    }
+
+    private <T> T await(Future<T> future) {
+        try {
+            return future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new AppException(ErrorCode.SERVICE_BUSY);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AppException(ErrorCode.SERVICE_BUSY);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException)
+                throw runtimeException;
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static Timer hashTimer(MeterRegistry meterRegistry, String operation) {
+        return Timer.builder("password.hashing.duration")
+                .description("Time spent hashing or verifying one password, excluding queue wait")
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+}
@@ -1,5 +1,6 @@
 package com.luv2code.IdentityService.service;
 
+import com.luv2code.IdentityService.cache.RoleScopeCache;
 import com.luv2code.IdentityService.dto.request.PermissionRequest;
 import com.luv2code.IdentityService.dto.response.PermissionResponse;
 import com.luv2code.IdentityService.entity.Permission;
@@ -18,11 +19,12 @@ import java.util.List;
 public class PermissionService {
     PermissionRepository permissionRepository;
     PermissionMapper permissionMapper;
+    RoleScopeCache roleScopeCache;
 
     public PermissionResponse create(PermissionRequest request){
-        return permissionMapper.toPermissionResponse(
-                permissionRepository.save(
-                        permissionMapper.toPermission(request)));
+        var permission = permissionRepository.save(permissionMapper.toPermission(request));
+        roleScopeCache.invalidateAll();
+        return permissionMapper.toPermissionResponse(permission);
     }
 
     public List<PermissionResponse> getAll(){
@@ -32,5 +34,6 @@ public class PermissionService {
 
     public void delete(String permissionName){
         permissionRepository.deleteById(permissionName);
+        roleScopeCache.invalidateAll();
     }
 }
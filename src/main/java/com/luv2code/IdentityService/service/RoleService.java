@@ -1,5 +1,6 @@
 package com.luv2code.IdentityService.service;
 
+import com.luv2code.IdentityService.cache.RoleScopeCache;
 import com.luv2code.IdentityService.dto.request.RoleRequest;
 import com.luv2code.IdentityService.dto.response.RoleResponse;
 import com.luv2code.IdentityService.mapper.RoleMapper;
@@ -21,6 +22,7 @@ public class RoleService {
     RoleRepository roleRepository;
     PermissionRepository permissionRepository;
     RoleMapper roleMapper;
+    RoleScopeCache roleScopeCache;
 
     public RoleResponse create(RoleRequest request){
         var role = roleMapper.toRole(request);
@@ -29,6 +31,7 @@ public class RoleService {
         role.setPermissions(new HashSet<>(permissions));
 
         role = roleRepository.save(role);
+        roleScopeCache.invalidateAll();
         return roleMapper.toRoleResponse(role);
     }
 
@@ -42,5 +45,6 @@ public class RoleService {
 
     public void delete(String role){
         roleRepository.deleteById(role);
+        roleScopeCache.invalidateAll();
     }
 }
@@ -0,0 +1,81 @@
+package com.luv2code.IdentityService.service;
+
+import com.luv2code.IdentityService.authorization.HasAuthority;
+import com.luv2code.IdentityService.cache.UserRevocationEpochs;
+import com.luv2code.IdentityService.dto.request.TokenRevocationRequest;
+import com.luv2code.IdentityService.dto.response.TokenRevocationResponse;
+import com.luv2code.IdentityService.exception.AppException;
+import com.luv2code.IdentityService.exception.ErrorCode;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.CollectionUtils;
+import org.springframework.util.StringUtils;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * "Log out everywhere": instead of one InvalidatedToken row per JTI, which are not tracked per user,
+ * moves the user's revocation epoch to now, so every token issued so far fails verification.
+ */
+@Service
+@Slf4j
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class TokenRevocationService {
+
+    // never moves an epoch backwards, so concurrent revocations cannot undo each other
+    static final String UPSERT_EPOCH = "INSERT INTO user_revocation_epoch (username, not_before) VALUES (?, ?) "
+            + "ON DUPLICATE KEY UPDATE not_before = GREATEST(not_before, VALUES(not_before))";
+
+    UserRevocationEpochs userRevocationEpochs;
+    JdbcTemplate jdbcTemplate;
+    TransactionTemplate transactionTemplate;
+    int maxBatchSize;
+    int jdbcBatchSize;
+
+    public TokenRevocationService(UserRevocationEpochs userRevocationEpochs,
+                                  JdbcTemplate jdbcTemplate,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${users.bulk.max-batch-size:5000}") int maxBatchSize,
+                                  @Value("${users.bulk.jdbc-batch-size:500}") int jdbcBatchSize) {
+        this.userRevocationEpochs = userRevocationEpochs;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxBatchSize = maxBatchSize;
+        this.jdbcBatchSize = jdbcBatchSize;
+    }
+
+    @HasAuthority("ROLE_ADMIN")
+    public TokenRevocationResponse revokeAllTokens(TokenRevocationRequest request) {
+        List<String> usernames = CollectionUtils.isEmpty(request.getUsernames())
+                ? List.of()
+                : request.getUsernames().stream().filter(StringUtils::hasText).distinct().toList();
+        if (usernames.size() > maxBatchSize)
+            throw new AppException(ErrorCode.BATCH_TOO_LARGE);
+
+        // iat has second precision, so the epoch does too
+        Instant notBefore = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        if (!usernames.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status ->
+                    jdbcTemplate.batchUpdate(UPSERT_EPOCH, usernames, jdbcBatchSize, (ps, username) -> {
+                        ps.setString(1, username);
+                        ps.setTimestamp(2, Timestamp.from(notBefore));
+                    }));
+            userRevocationEpochs.revoke(usernames, notBefore);
+            log.info("Revoked all tokens of {} users issued up to {}", usernames.size(), notBefore);
+        }
+
+        return TokenRevocationResponse.builder()
+                .users(usernames.size())
+                .notBefore(notBefore)
+                .build();
+    }
+}
@@ -0,0 +1,103 @@
+package com.luv2code.IdentityService.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.luv2code.IdentityService.authorization.HasAuthority;
+import com.luv2code.IdentityService.dto.response.UserResponse;
+import com.luv2code.IdentityService.entity.User;
+import com.luv2code.IdentityService.mapper.UserMapper;
+import com.luv2code.IdentityService.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams the whole user directory as newline-delimited JSON. Rows come from a forward-only
+ * cursor and are written in chunks; the persistence context is cleared after every chunk so
+ * memory stays flat no matter how many users there are.
+ */
+@Service
+@Slf4j
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class UserExportService {
+
+    UserRepository userRepository;
+    UserMapper userMapper;
+    EntityManager entityManager;
+    TransactionTemplate transactionTemplate;
+    ObjectWriter objectWriter;
+    int chunkSize;
+
+    public UserExportService(UserRepository userRepository,
+                             UserMapper userMapper,
+                             EntityManager entityManager,
+                             PlatformTransactionManager transactionManager,
+                             ObjectMapper objectMapper,
+                             @Value("${users.export.chunk-size:500}") int chunkSize) {
+        this.userRepository = userRepository;
+        this.userMapper = userMapper;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.objectWriter = objectMapper.writerFor(UserResponse.class);
+        this.chunkSize = chunkSize;
+    }
+
+    // the body runs later on an MVC async thread, the role check happens here on the request thread
+    @HasAuthority("ROLE_ADMIN")
+    public StreamingResponseBody exportUsers() {
+        return this::writeUsers;
+    }
+
+    public void writeUsers(OutputStream outputStream) {
+        var out = new BufferedOutputStream(outputStream, 64 * 1024);
+
+        Long exported = transactionTemplate.execute(status -> {
+            long count = 0;
+            List<User> chunk = new ArrayList<>(chunkSize);
+
+            try (var users = userRepository.streamAll()) {
+                var iterator = users.iterator();
+                while (iterator.hasNext()) {
+                    chunk.add(iterator.next());
+                    if (chunk.size() == chunkSize || !iterator.hasNext()) {
+                        count += writeChunk(chunk, out);
+                        chunk.clear();
+                        // drop the written users (and their roles) from the session
+                        entityManager.clear();
+                    }
+                }
+            }
+            return count;
+        });
+
+        log.info("Exported {} users", exported);
+    }
+
+    // mapping a whole chunk at once lets roles/permissions load with a few batch selects
+    private int writeChunk(List<User> chunk, BufferedOutputStream out) {
+        try {
+            for (UserResponse response : userMapper.toListUserResponse(chunk)) {
+                out.write(objectWriter.writeValueAsBytes(response));
+                out.write('\n');
+            }
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return chunk.size();
+    }
+}
@@ -0,0 +1,291 @@
+package com.luv2code.IdentityService.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.luv2code.IdentityService.authorization.HasAuthority;
+import com.luv2code.IdentityService.dto.request.UserCreationRequest;
+import com.luv2code.IdentityService.dto.response.BulkUserResult;
+import com.luv2code.IdentityService.dto.response.UserImportJobResponse;
+import com.luv2code.IdentityService.entity.UserImportJob;
+import com.luv2code.IdentityService.enums.ImportJobStatus;
+import com.luv2code.IdentityService.exception.AppException;
+import com.luv2code.IdentityService.exception.ErrorCode;
+import com.luv2code.IdentityService.mapper.UserImportJobMapper;
+import com.luv2code.IdentityService.repository.UserImportJobRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Imports users from an NDJSON file of UserCreationRequest, one chunk per transaction. The
+ * number of lines consumed is committed together with each chunk, so a job interrupted by a
+ * crash or a failure resumes from its last chunk, on this instance or any other sharing
+ * {@code users.import.dir}. An instance claims a job before running it and renews the claim with
+ * every checkpoint; a claim not renewed within {@code users.import.lease} is taken over. Rejected rows go to {@code <job>.errors.ndjson}
+ * next to the input, keyed by line number; they are written and forced to disk inside the chunk's
+ * transaction, and the checkpoint records the file's length, so a resumed job cuts off rows of a
+ * chunk that never committed and no committed chunk loses its rejections.
+ */
+@Service
+@Slf4j
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class UserImportService {
+
+    UserImportJobRepository userImportJobRepository;
+    UserImportJobMapper userImportJobMapper;
+    UserProvisioningService userProvisioningService;
+    ObjectReader requestReader;
+    ObjectWriter resultWriter;
+    Path importDir;
+    int chunkSize;
+    Duration lease;
+    String instanceId = UUID.randomUUID().toString();
+
+    // one import at a time per node, imports share the hashing pool with logins
+    ExecutorService executor = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("user-import-"));
+    Set<String> running = ConcurrentHashMap.newKeySet();
+
+    public UserImportService(UserImportJobRepository userImportJobRepository,
+                             UserImportJobMapper userImportJobMapper,
+                             UserProvisioningService userProvisioningService,
+                             ObjectMapper objectMapper,
+                             @Value("${users.import.dir}") Path importDir,
+                             @Value("${users.import.chunk-size:1000}") int chunkSize,
+                             @Value("${users.import.lease:PT10M}") Duration lease) throws IOException {
+        this.userImportJobRepository = userImportJobRepository;
+        this.userImportJobMapper = userImportJobMapper;
+        this.userProvisioningService = userProvisioningService;
+        this.requestReader = objectMapper.readerFor(UserCreationRequest.class);
+        this.resultWriter = objectMapper.writerFor(BulkUserResult.class);
+        this.importDir = Files.createDirectories(importDir);
+        this.chunkSize = chunkSize;
+        this.lease = lease;
+    }
+
+    @HasAuthority("ROLE_ADMIN")
+    public UserImportJobResponse startImport(MultipartFile file) {
+        var now = Instant.now();
+        var job = userImportJobRepository.save(UserImportJob.builder()
+                .fileName(file.getOriginalFilename())
+                .status(ImportJobStatus.QUEUED)
+                // claimed from the start, an instance resuming jobs meanwhile must not fail it for its missing file
+                .owner(instanceId)
+                .createdAt(now)
+                .updatedAt(now)
+                .build());
+
+        try {
+            file.transferTo(inputPath(job.getId()));
+        } catch (IOException e) {
+            updateStatus(job, ImportJobStatus.FAILED, "Could not store the uploaded file");
+            throw new UncheckedIOException(e);
+        }
+
+        executor.execute(() -> run(job.getId()));
+        return userImportJobMapper.toUserImportJobResponse(job);
+    }
+
+    @HasAuthority("ROLE_ADMIN")
+    public UserImportJobResponse getJob(String jobId) {
+        return userImportJobMapper.toUserImportJobResponse(findJob(jobId));
+    }
+
+    @HasAuthority("ROLE_ADMIN")
+    public UserImportJobResponse resume(String jobId) {
+        var job = findJob(jobId);
+        if (job.getStatus() != ImportJobStatus.COMPLETED && !running.contains(jobId))
+            executor.execute(() -> run(jobId));
+        return userImportJobMapper.toUserImportJobResponse(job);
+    }
+
+    // jobs left QUEUED or RUNNING by a previous process pick up from their checkpoint; run() skips
+    // those another live instance holds
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterrupted() {
+        userImportJobRepository.findByStatusIn(EnumSet.of(ImportJobStatus.QUEUED, ImportJobStatus.RUNNING))
+                .forEach(job -> {
+                    log.info("Resuming user import {} after line {}", job.getId(), job.getProcessedLines());
+                    executor.execute(() -> run(job.getId()));
+                });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    void run(String jobId) {
+        if (!running.add(jobId))
+            return;
+
+        UserImportJob job = null;
+        try {
+            var now = Instant.now();
+            if (userImportJobRepository.claim(jobId, instanceId, now, now.minus(lease), ImportJobStatus.COMPLETED) == 0) {
+                log.info("User import {} is completed or held by another instance", jobId);
+                return;
+            }
+
+            job = findJob(jobId);
+            if (!Files.exists(inputPath(jobId))) {
+                log.error("User import {} cannot resume, its input file is gone", jobId);
+                updateStatus(job, ImportJobStatus.FAILED, "Input file is missing");
+                return;
+            }
+
+            updateStatus(job, ImportJobStatus.RUNNING, null);
+            importFile(job);
+            updateStatus(job, ImportJobStatus.COMPLETED, null);
+
+            log.info("User import {} completed: {} created, {} failed",
+                    jobId, job.getCreatedRows(), job.getFailedRows());
+        } catch (IOException | RuntimeException e) {
+            log.error("User import {} failed", jobId, e);
+            // reload: the in-memory checkpoint may belong to a chunk that was rolled back
+            if (job != null)
+                updateStatus(findJob(jobId), ImportJobStatus.FAILED, e.getMessage());
+        } finally {
+            running.remove(jobId);
+        }
+    }
+
+    private void importFile(UserImportJob job) throws IOException {
+        try (var reader = Files.newBufferedReader(inputPath(job.getId()));
+             var errors = FileChannel.open(errorsPath(job.getId()),
+                     StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            errors.truncate(job.getErrorsBytes());
+
+            long line = 0;
+            while (line < job.getProcessedLines() && reader.readLine() != null)
+                line++;
+
+            List<UserCreationRequest> requests = new ArrayList<>(chunkSize);
+            List<Long> lineNumbers = new ArrayList<>(chunkSize);
+
+            String text;
+            while ((text = reader.readLine()) != null) {
+                line++;
+                if (!text.isBlank()) {
+                    requests.add(parse(text));
+                    lineNumbers.add(line);
+                }
+                if (requests.size() == chunkSize) {
+                    importChunk(job, requests, lineNumbers, line, errors);
+                    requests.clear();
+                    lineNumbers.clear();
+                }
+            }
+            importChunk(job, requests, lineNumbers, line, errors);
+        }
+    }
+
+    private void importChunk(UserImportJob job, List<UserCreationRequest> requests, List<Long> lineNumbers,
+                             long lastLine, FileChannel errors) {
+        if (requests.isEmpty()) {
+            job.setProcessedLines(lastLine);
+            job.setUpdatedAt(Instant.now());
+            userImportJobRepository.save(job);
+            return;
+        }
+
+        // absolute values, the callback may run twice if the insert is retried
+        long createdBefore = job.getCreatedRows();
+        long failedBefore = job.getFailedRows();
+        long errorsBefore = job.getErrorsBytes();
+
+        userProvisioningService.provision(requests, chunkResults -> {
+            long created = chunkResults.stream().filter(result -> result.getId() != null).count();
+
+            job.setProcessedLines(lastLine);
+            job.setCreatedRows(createdBefore + created);
+            job.setFailedRows(failedBefore + chunkResults.size() - created);
+            job.setErrorsBytes(writeErrors(errors, errorsBefore, chunkResults, lineNumbers));
+            job.setUpdatedAt(Instant.now());
+            userImportJobRepository.save(job);
+        });
+    }
+
+    // runs before the chunk commits; returns the errors file length to checkpoint
+    private long writeErrors(FileChannel errors, long position, List<BulkUserResult> results, List<Long> lineNumbers) {
+        var rejected = new ByteArrayOutputStream();
+        try {
+            for (int i = 0; i < results.size(); i++) {
+                var result = results.get(i);
+                if (result.getId() != null)
+                    continue;
+
+                result.setIndex(Math.toIntExact(lineNumbers.get(i)));
+                rejected.write(resultWriter.writeValueAsBytes(result));
+                rejected.write('\n');
+            }
+
+            errors.truncate(position);
+            var buffer = ByteBuffer.wrap(rejected.toByteArray());
+            while (buffer.hasRemaining())
+                position += errors.write(buffer, position);
+            errors.force(false);
+            return position;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // an unreadable line becomes a null row, which provisioning reports as INVALID_KEY
+    private UserCreationRequest parse(String text) {
+        try {
+            return requestReader.readValue(text);
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+
+    private UserImportJob findJob(String jobId) {
+        return userImportJobRepository.findById(jobId)
+                .orElseThrow(() -> new AppException(ErrorCode.IMPORT_JOB_NOT_FOUND));
+    }
+
+    private void updateStatus(UserImportJob job, ImportJobStatus status, String lastError) {
+        if (status == ImportJobStatus.COMPLETED || status == ImportJobStatus.FAILED)
+            job.setOwner(null);
+        job.setStatus(status);
+        job.setLastError(lastError);
+        job.setUpdatedAt(Instant.now());
+        userImportJobRepository.save(job);
+    }
+
+    private Path inputPath(String jobId) {
+        return importDir.resolve(jobId + ".ndjson");
+    }
+
+    private Path errorsPath(String jobId) {
+        return importDir.resolve(jobId + ".errors.ndjson");
+    }
+}
@@ -0,0 +1,253 @@
+package com.luv2code.IdentityService.service;
+
+import com.luv2code.IdentityService.authorization.HasAuthority;
+import com.luv2code.IdentityService.constant.PredefinedRole;
+import com.luv2code.IdentityService.dto.request.BulkUserCreationRequest;
+import com.luv2code.IdentityService.dto.request.UserCreationRequest;
+import com.luv2code.IdentityService.dto.response.BulkUserCreationResponse;
+import com.luv2code.IdentityService.dto.response.BulkUserResult;
+import com.luv2code.IdentityService.entity.Role;
+import com.luv2code.IdentityService.exception.AppException;
+import com.luv2code.IdentityService.exception.ErrorCode;
+import com.luv2code.IdentityService.identifier.UuidV7;
+import com.luv2code.IdentityService.repository.RoleRepository;
+import com.luv2code.IdentityService.repository.UserRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.CollectionUtils;
+
+import java.sql.Date;
+import java.text.Collator;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Creates many users at once: one query for username conflicts, passwords hashed in parallel on
+ * the hashing pool, users and their USER role rows written with JDBC batches in one transaction.
+ * Every row gets its own result, a bad row never fails the others.
+ */
+@Service
+@Slf4j
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class UserProvisioningService {
+
+    static final String INSERT_USER =
+            "INSERT INTO user (id, username, password, firstname, lastname, dob) VALUES (?, ?, ?, ?, ?, ?)";
+
+    static final String INSERT_USER_ROLE = "INSERT INTO user_roles (user_id, roles_name) VALUES (?, ?)";
+
+    static final int SUCCESS_CODE = 1000;
+
+    static final String MIN_ATTRIBUTE = "min";
+
+    UserRepository userRepository;
+    RoleRepository roleRepository;
+    PasswordHashingService passwordHashingService;
+    Validator validator;
+    JdbcTemplate jdbcTemplate;
+    TransactionTemplate transactionTemplate;
+    int maxBatchSize;
+    int jdbcBatchSize;
+
+    public UserProvisioningService(UserRepository userRepository,
+                                   RoleRepository roleRepository,
+                                   PasswordHashingService passwordHashingService,
+                                   Validator validator,
+                                   JdbcTemplate jdbcTemplate,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${users.bulk.max-batch-size:5000}") int maxBatchSize,
+                                   @Value("${users.bulk.jdbc-batch-size:500}") int jdbcBatchSize) {
+        this.userRepository = userRepository;
+        this.roleRepository = roleRepository;
+        this.passwordHashingService = passwordHashingService;
+        this.validator = validator;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxBatchSize = maxBatchSize;
+        this.jdbcBatchSize = jdbcBatchSize;
+    }
+
+    @HasAuthority("ROLE_ADMIN")
+    public BulkUserCreationResponse createUsers(BulkUserCreationRequest request) {
+        var users = request.getUsers();
+        if (CollectionUtils.isEmpty(users))
+            return summarize(List.of());
+        if (users.size() > maxBatchSize)
+            throw new AppException(ErrorCode.BATCH_TOO_LARGE);
+
+        return summarize(provision(users, results -> {}));
+    }
+
+    /**
+     * Provisions one batch of rows. {@code inTransaction} runs in the insert transaction with the
+     * final results, so callers can commit their own bookkeeping atomically with the users.
+     */
+    List<BulkUserResult> provision(List<UserCreationRequest> requests, Consumer<List<BulkUserResult>> inTransaction) {
+        BulkUserResult[] results = new BulkUserResult[requests.size()];
+
+        // username -> row index of the first valid row claiming it
+        Map<String, Integer> accepted = new TreeMap<>(usernameCollator());
+        for (int i = 0; i < requests.size(); i++) {
+            var request = requests.get(i);
+            var error = validate(request);
+
+            if (error != null)
+                results[i] = failure(i, request, error);
+            else if (accepted.putIfAbsent(request.getUsername(), i) != null)
+                results[i] = failure(i, request, ErrorCode.USER_EXISTED.getCode(), ErrorCode.USER_EXISTED.getMessage());
+        }
+
+        rejectExisting(accepted, requests, results);
+
+        List<Integer> rows = new ArrayList<>(accepted.values());
+        List<String> hashes = passwordHashingService.encodeAll(
+                rows.stream().map(i -> requests.get(i).getPassword()).toList());
+
+        Map<Integer, PendingUser> pending = new LinkedHashMap<>();
+        for (int j = 0; j < rows.size(); j++)
+            pending.put(rows.get(j), new PendingUser(UuidV7.randomUuid(), requests.get(rows.get(j)), hashes.get(j)));
+
+        String roleName = roleRepository.findById(PredefinedRole.USER_ROLE).map(Role::getName).orElse(null);
+
+        try {
+            insert(pending, roleName, results, inTransaction);
+        } catch (DataIntegrityViolationException e) {
+            // a concurrent request may have taken some of the usernames after our check, drop them and retry once;
+            // a replica may not have the conflicting rows yet, a read-write transaction stays on the primary
+            Boolean conflicts = transactionTemplate.execute(status -> rejectExisting(accepted, requests, results));
+            // no new username conflict: the violation is something else (a column too long, ...), retrying won't help
+            if (!Boolean.TRUE.equals(conflicts))
+                throw e;
+
+            log.info("Username conflict during bulk insert, retrying without the conflicting rows");
+            pending.keySet().retainAll(accepted.values());
+            insert(pending, roleName, results, inTransaction);
+        }
+
+        return Arrays.asList(results);
+    }
+
+    private void insert(Map<Integer, PendingUser> pending, String roleName,
+                        BulkUserResult[] results, Consumer<List<BulkUserResult>> inTransaction) {
+        var users = List.copyOf(pending.values());
+
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(INSERT_USER, users, jdbcBatchSize, (ps, user) -> {
+                var request = user.request();
+                ps.setBytes(1, UuidV7.toBytes(user.id()));
+                ps.setString(2, request.getUsername());
+                ps.setString(3, user.passwordHash());
+                ps.setString(4, request.getFirstname());
+                ps.setString(5, request.getLastname());
+                ps.setDate(6, request.getDob() == null ? null : Date.valueOf(request.getDob()));
+            });
+
+            if (roleName != null)
+                jdbcTemplate.batchUpdate(INSERT_USER_ROLE, users, jdbcBatchSize, (ps, user) -> {
+                    ps.setBytes(1, UuidV7.toBytes(user.id()));
+                    ps.setString(2, roleName);
+                });
+
+            pending.forEach((i, user) -> results[i] = BulkUserResult.builder()
+                    .index(i)
+                    .username(user.request().getUsername())
+                    .id(user.id().toString())
+                    .code(SUCCESS_CODE)
+                    .build());
+
+            inTransaction.accept(Arrays.asList(results));
+        });
+    }
+
+    // returns whether any accepted row was rejected
+    private boolean rejectExisting(Map<String, Integer> accepted, List<UserCreationRequest> requests,
+                                   BulkUserResult[] results) {
+        if (accepted.isEmpty())
+            return false;
+
+        boolean rejected = false;
+        for (String username : userRepository.findExistingUsernames(accepted.keySet())) {
+            // the stored spelling; a name the collator does not match to any row was not requested by us
+            Integer i = accepted.remove(username);
+            if (i == null)
+                continue;
+            results[i] = failure(i, requests.get(i), ErrorCode.USER_EXISTED.getCode(), ErrorCode.USER_EXISTED.getMessage());
+            rejected = true;
+        }
+        return rejected;
+    }
+
+    /**
+     * Compares usernames the way the MySQL column does (utf8mb4_0900_ai_ci, case and accent
+     * insensitive), so "John" and "john" are one name here as they are for the unique index and for
+     * findExistingUsernames.
+     */
+    private static Collator usernameCollator() {
+        Collator collator = Collator.getInstance(Locale.ROOT);
+        collator.setStrength(Collator.PRIMARY);
+        return collator;
+    }
+
+    // same message resolution as GlobalExceptionHandler applies to a single POST /users
+    private BulkUserResult validate(UserCreationRequest request) {
+        if (request == null || request.getUsername() == null)
+            return failure(ErrorCode.INVALID_KEY, null);
+
+        Set<ConstraintViolation<UserCreationRequest>> violations = validator.validate(request);
+        if (violations.isEmpty())
+            return null;
+
+        var violation = violations.iterator().next();
+        try {
+            return failure(ErrorCode.valueOf(violation.getMessage()),
+                    violation.getConstraintDescriptor().getAttributes());
+        } catch (IllegalArgumentException e) {
+            return failure(ErrorCode.INVALID_KEY, null);
+        }
+    }
+
+    private static BulkUserResult failure(ErrorCode errorCode, Map<String, Object> attributes) {
+        String message = errorCode.getMessage();
+        if (attributes != null)
+            message = message.replace("{" + MIN_ATTRIBUTE + "}", String.valueOf(attributes.get(MIN_ATTRIBUTE)));
+
+        return BulkUserResult.builder()
+                .code(errorCode.getCode())
+                .message(message)
+                .build();
+    }
+
+    private static BulkUserResult failure(int index, UserCreationRequest request, BulkUserResult error) {
+        return failure(index, request, error.getCode(), error.getMessage());
+    }
+
+    private static BulkUserResult failure(int index, UserCreationRequest request, int code, String message) {
+        return BulkUserResult.builder()
+                .index(index)
+                .username(request == null ? null : request.getUsername())
+                .code(code)
+                .message(message)
+                .build();
+    }
+
+    private static BulkUserCreationResponse summarize(List<BulkUserResult> results) {
+        int created = (int) results.stream().filter(result -> result.getCode() == SUCCESS_CODE).count();
+
+        return BulkUserCreationResponse.builder()
+                .created(created)
+                .failed(results.size() - created)
+                .results(results)
+                .build();
+    }
+
+    private record PendingUser(UUID id, UserCreationRequest request, String passwordHash) {}
+}
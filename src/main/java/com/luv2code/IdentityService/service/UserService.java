@@ -1,29 +1,37 @@
 package com.luv2code.IdentityService.service;
 
+import com.luv2code.IdentityService.authorization.HasAuthority;
 import com.luv2code.IdentityService.constant.PredefinedRole;
+import com.luv2code.IdentityService.datasource.ReadYourWrites;
 import com.luv2code.IdentityService.dto.request.UserCreationRequest;
 import com.luv2code.IdentityService.dto.request.UserUpdateRequest;
+import com.luv2code.IdentityService.dto.response.CursorPageResponse;
 import com.luv2code.IdentityService.dto.response.UserResponse;
 import com.luv2code.IdentityService.entity.Role;
 import com.luv2code.IdentityService.entity.User;
 import com.luv2code.IdentityService.exception.AppException;
 import com.luv2code.IdentityService.exception.ErrorCode;
+import com.luv2code.IdentityService.identifier.UuidV7;
 import com.luv2code.IdentityService.mapper.UserMapper;
 import com.luv2code.IdentityService.repository.RoleRepository;
 import com.luv2code.IdentityService.repository.UserRepository;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.access.prepost.PostAuthorize;
-import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.nio.ByteBuffer;
+import java.util.Base64;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
@@ -31,17 +39,45 @@ import java.util.List;
 public class UserService {
     UserRepository userRepository;
     UserMapper userMapper;
-    PasswordEncoder passwordEncoder;
+    PasswordHashingService passwordHashingService;
     RoleRepository roleRepository;
-
-    @PreAuthorize("hasRole('ADMIN')")
-    public List<UserResponse> getUser(){
-        return userMapper.toListUserResponse(userRepository.findAll());
+    ReadYourWrites readYourWrites;
+
+    @NonFinal
+    @Value("${users.page.default-size:50}")
+    protected int DEFAULT_PAGE_SIZE;
+
+    @NonFinal
+    @Value("${users.page.max-size:500}")
+    protected int MAX_PAGE_SIZE;
+
+    /**
+     * Keyset pagination on the primary key: each page is an index range scan starting right after
+     * the last id of the previous page, so fetching page N costs the same as fetching page 1.
+     */
+    @HasAuthority("ROLE_ADMIN")
+    public CursorPageResponse<UserResponse> getUsers(String cursor, Integer size){
+        int pageSize = Objects.isNull(size) ? DEFAULT_PAGE_SIZE : Math.clamp(size, 1, MAX_PAGE_SIZE);
+        // one extra row tells whether there is a next page
+        Limit limit = Limit.of(pageSize + 1);
+
+        List<User> users = Objects.isNull(cursor)
+                ? userRepository.findAllByOrderByIdAsc(limit)
+                : userRepository.findByIdGreaterThanOrderByIdAsc(decodeCursor(cursor), limit);
+
+        boolean hasNext = users.size() > pageSize;
+        if (hasNext)
+            users = users.subList(0, pageSize);
+
+        return CursorPageResponse.<UserResponse>builder()
+                .items(userMapper.toListUserResponse(users))
+                .nextCursor(hasNext ? encodeCursor(users.getLast().getId()) : null)
+                .build();
     }
 
     @PostAuthorize("returnObject.username == authentication.name")
     public UserResponse getUser(String userId){
-        return userMapper.toUserResponse(userRepository.findById(userId)
+        return userMapper.toUserResponse(userRepository.findById(parseId(userId))
                 .orElseThrow(() -> new AppException(ErrorCode.USER_NOT_FOUND)));
     }
 
@@ -51,7 +87,7 @@ public class UserService {
             throw new AppException(ErrorCode.USER_EXISTED);
 
         User user = userMapper.toUser(request);
-        user.setPassword(passwordEncoder.encode(request.getPassword()));
+        user.setPassword(passwordHashingService.encode(request.getPassword()));
 
         HashSet<Role> roles = new HashSet<>();
         roleRepository.findById(PredefinedRole.USER_ROLE).ifPresent(roles::add);
@@ -62,6 +98,7 @@ public class UserService {
         } catch (DataIntegrityViolationException exception){
             throw new AppException(ErrorCode.USER_EXISTED);
         }
+        readYourWrites.recordWrite(ReadYourWrites.Kind.USER, user.getUsername());
         return userMapper.toUserResponse(user);
     }
 
@@ -70,30 +107,61 @@ public class UserService {
         var context = SecurityContextHolder.getContext();
         String name = context.getAuthentication().getName();
 
-        User user = userRepository.findByUsername(name)
+        User user = readYourWrites.read(ReadYourWrites.Kind.USER, name, () -> userRepository.findByUsername(name))
                 .orElseThrow(() -> new AppException(ErrorCode.USER_NOT_FOUND));
 
         return userMapper.toUserResponse(user);
     }
 
     public UserResponse updateUser(String userId, UserUpdateRequest request){
-        User user = userRepository.findById(userId)
+        User user = userRepository.findById(parseId(userId))
                 .orElseThrow(() -> new AppException(ErrorCode.USER_NOT_FOUND));
         userMapper.updateUser(user, request);
-        user.setPassword(passwordEncoder.encode(request.getPassword()));
+        user.setPassword(passwordHashingService.encode(request.getPassword()));
 
         var roles = roleRepository.findAllById(request.getRoles());
         user.setRoles(new HashSet<>(roles));
 
-        return userMapper.toUserResponse(userRepository.save(user));
+        user = userRepository.save(user);
+        readYourWrites.recordWrite(ReadYourWrites.Kind.USER, user.getUsername());
+        return userMapper.toUserResponse(user);
+    }
+
+    private static String encodeCursor(UUID lastId){
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(UuidV7.toBytes(lastId));
+    }
+
+    // exactly the 16 bytes encodeCursor writes, trailing bytes would otherwise be ignored
+    private static UUID decodeCursor(String cursor){
+        byte[] bytes;
+        try {
+            bytes = Base64.getUrlDecoder().decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new AppException(ErrorCode.INVALID_CURSOR);
+        }
+        if (bytes.length != 16)
+            throw new AppException(ErrorCode.INVALID_CURSOR);
+
+        var buffer = ByteBuffer.wrap(bytes);
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+
+    // an id that is not even a UUID cannot exist
+    private static UUID parseId(String userId){
+        try {
+            return UUID.fromString(userId);
+        } catch (IllegalArgumentException e) {
+            throw new AppException(ErrorCode.USER_NOT_FOUND);
+        }
     }
 
     public boolean deleteUser(String userId){
-        User user = userRepository.findById(userId)
+        User user = userRepository.findById(parseId(userId))
                 .orElseThrow(() -> new AppException(ErrorCode.USER_NOT_FOUND));
         boolean isDeleted = false;
         try {
-            userRepository.deleteById(userId);
+            userRepository.deleteById(user.getId());
+            readYourWrites.recordWrite(ReadYourWrites.Kind.USER, user.getUsername());
         }catch (Exception e){
         }
         return isDeleted = true;
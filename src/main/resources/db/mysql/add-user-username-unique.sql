@@ -0,0 +1,13 @@
+-- Adds the unique index on user.username (MySQL 8.0+).
+--
+-- ddl-auto=update creates uk_user_username by itself, but fails to start if the table already holds
+-- usernames that are equal under the column's collation (case and accents ignored). Run the first
+-- query before deploying; resolve every name it returns (rename or delete the extra accounts), then
+-- deploy or create the index with the statement below. On large tables use an online schema change tool.
+
+SELECT username, COUNT(*) AS accounts
+FROM user
+GROUP BY username
+HAVING COUNT(*) > 1;
+
+ALTER TABLE user ADD CONSTRAINT uk_user_username UNIQUE (username);
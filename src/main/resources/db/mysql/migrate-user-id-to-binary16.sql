@@ -0,0 +1,33 @@
+-- Converts user.id and user_roles.user_id from VARCHAR(255) to BINARY(16) (MySQL 8.0+).
+--
+-- Run once, with the application stopped and after a backup, before deploying the build that maps
+-- User.id as a UUID: ddl-auto=update does not change column types. Existing ids keep their value
+-- (UUID_TO_BIN without the swap flag is the byte layout Hibernate uses), so ids already handed out
+-- stay valid; only new users get time-ordered UUIDv7 ids. On large tables run the same steps with
+-- an online schema change tool instead. MySQL DDL is not transactional: if a step fails, restore
+-- the backup rather than re-running the script.
+
+SET @fk = (SELECT CONSTRAINT_NAME
+           FROM information_schema.KEY_COLUMN_USAGE
+           WHERE TABLE_SCHEMA = DATABASE()
+             AND TABLE_NAME = 'user_roles'
+             AND COLUMN_NAME = 'user_id'
+             AND REFERENCED_TABLE_NAME = 'user');
+SET @drop_fk = CONCAT('ALTER TABLE user_roles DROP FOREIGN KEY ', @fk);
+PREPARE stmt FROM @drop_fk;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+ALTER TABLE user ADD COLUMN id_bin BINARY(16) NULL;
+UPDATE user SET id_bin = UUID_TO_BIN(id);
+
+ALTER TABLE user_roles ADD COLUMN user_id_bin BINARY(16) NULL;
+UPDATE user_roles SET user_id_bin = UUID_TO_BIN(user_id);
+
+ALTER TABLE user_roles DROP PRIMARY KEY, DROP COLUMN user_id;
+ALTER TABLE user_roles CHANGE user_id_bin user_id BINARY(16) NOT NULL, ADD PRIMARY KEY (user_id, roles_name);
+
+ALTER TABLE user DROP PRIMARY KEY, DROP COLUMN id;
+ALTER TABLE user CHANGE id_bin id BINARY(16) NOT NULL, ADD PRIMARY KEY (id);
+
+ALTER TABLE user_roles ADD CONSTRAINT fk_user_roles_user FOREIGN KEY (user_id) REFERENCES user (id);
@@ -0,0 +1,54 @@
+package com.luv2code.IdentityService.reactive;
+
+import com.luv2code.IdentityService.cache.RoleScopeCache;
+import com.luv2code.IdentityService.cache.TokenVerificationCache;
+import com.luv2code.IdentityService.configuration.AuditConfig;
+import com.luv2code.IdentityService.configuration.JwtSigningKeys;
+import com.luv2code.IdentityService.exception.GlobalExceptionHandler;
+import com.luv2code.IdentityService.ratelimit.LoginRateLimiter;
+import com.luv2code.IdentityService.service.AuthenticationMetrics;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Reactive edge deployment (mvn -Preactive): {@code /auth/token} and {@code /auth/introspect} on Netty
+ * and R2DBC, so slow clients hold no thread while they send or read. Only this package is scanned; the
+ * signing keys, caches, rate limiter, metrics and exception handling are the servlet application's
+ * beans, imported as they are. Every class here carries {@link #PROFILE} because the servlet
+ * application's component scan covers this package as well.
+ */
+@Profile(ReactiveAuthApplication.PROFILE)
+@SpringBootApplication
+@EnableScheduling
+@Import({
+        JwtSigningKeys.class,
+        TokenVerificationCache.class,
+        RoleScopeCache.class,
+        LoginRateLimiter.class,
+        AuthenticationMetrics.class,
+        GlobalExceptionHandler.class,
+        AuditConfig.class
+})
+public class ReactiveAuthApplication {
+
+    public static final String PROFILE = "reactive";
+
+    public static void main(String[] args) {
+        new SpringApplicationBuilder(ReactiveAuthApplication.class)
+                .web(WebApplicationType.REACTIVE)
+                .profiles(PROFILE)
+                .run(args);
+    }
+
+    // spring-boot-starter-web stays on the classpath and Tomcat would otherwise be picked
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+}
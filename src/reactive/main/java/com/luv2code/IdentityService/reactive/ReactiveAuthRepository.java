@@ -0,0 +1,93 @@
+package com.luv2code.IdentityService.reactive;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * The reads behind login and introspection, as plain SQL over R2DBC against the tables the JPA model
+ * maps (User, user_roles, role_permissions, InvalidatedToken, UserRevocationEpoch). Each method is a
+ * single round trip.
+ */
+@Profile(ReactiveAuthApplication.PROFILE)
+@Repository
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ReactiveAuthRepository {
+
+    static final String FIND_CREDENTIALS = "SELECT u.username, u.password, ur.roles_name FROM user u "
+            + "LEFT JOIN user_roles ur ON ur.user_id = u.id WHERE u.username = :username";
+
+    static final String FIND_PERMISSIONS = "SELECT rp.role_name, rp.permissions_name FROM role_permissions rp "
+            + "WHERE rp.role_name IN (:roleNames)";
+
+    // the JTI on the logout list, or issued at or before the user's last "log out everywhere"
+    static final String IS_REVOKED = "SELECT (SELECT COUNT(*) FROM invalidated_token WHERE id = :jti) "
+            + "+ (SELECT COUNT(*) FROM user_revocation_epoch WHERE username = :username AND not_before >= :issuedAt) "
+            + "AS revoked";
+
+    DatabaseClient databaseClient;
+
+    /**
+     * Stored username, password hash and role names of a user.
+     */
+    public record Credentials(String username, String password, List<String> roleNames) {}
+
+    // empty when there is no such user
+    public Mono<Credentials> findCredentials(String username) {
+        return databaseClient.sql(FIND_CREDENTIALS)
+                .bind("username", username)
+                .map(row -> new String[]{
+                        row.get("username", String.class),
+                        row.get("password", String.class),
+                        row.get("roles_name", String.class)})
+                .all()
+                .collectList()
+                .flatMap(rows -> {
+                    if (rows.isEmpty())
+                        return Mono.empty();
+
+                    List<String> roleNames = rows.stream()
+                            .map(row -> row[2])
+                            .filter(Objects::nonNull)
+                            .toList();
+                    return Mono.just(new Credentials(rows.getFirst()[0], rows.getFirst()[1], roleNames));
+                });
+    }
+
+    /**
+     * Permission names per role; roles without permissions are absent from the map.
+     */
+    public Mono<Map<String, List<String>>> findPermissions(Collection<String> roleNames) {
+        if (roleNames.isEmpty())
+            return Mono.just(Map.of());
+
+        return databaseClient.sql(FIND_PERMISSIONS)
+                .bind("roleNames", roleNames)
+                .map(row -> Map.entry(row.get("role_name", String.class), row.get("permissions_name", String.class)))
+                .all()
+                .collectMultimap(Map.Entry::getKey, Map.Entry::getValue)
+                .map(permissions -> {
+                    Map<String, List<String>> byRole = new HashMap<>();
+                    permissions.forEach((role, names) -> byRole.put(role, List.copyOf(names)));
+                    return byRole;
+                });
+    }
+
+    public Mono<Boolean> isRevoked(String jti, String username, Instant issuedAt) {
+        return databaseClient.sql(IS_REVOKED)
+                .bind("jti", jti)
+                .bind("username", username)
+                .bind("issuedAt", issuedAt)
+                .map(row -> row.get("revoked", Long.class))
+                .one()
+                .map(revoked -> revoked > 0);
+    }
+}
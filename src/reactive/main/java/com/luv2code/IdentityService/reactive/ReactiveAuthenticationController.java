@@ -0,0 +1,57 @@
+package com.luv2code.IdentityService.reactive;
+
+import com.luv2code.IdentityService.dto.request.ApiResponse;
+import com.luv2code.IdentityService.dto.request.AuthenticationRequest;
+import com.luv2code.IdentityService.dto.request.IntrospectRequest;
+import com.luv2code.IdentityService.dto.response.AuthenticationResponse;
+import com.luv2code.IdentityService.dto.response.IntrospectResponse;
+import com.luv2code.IdentityService.ratelimit.LoginRateLimiter;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+@Profile(ReactiveAuthApplication.PROFILE)
+@RestController
+@RequestMapping("/auth")
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ReactiveAuthenticationController {
+
+    ReactiveAuthenticationService authenticationService;
+    LoginRateLimiter loginRateLimiter;
+
+    @PostMapping("/token")
+    public Mono<ApiResponse<AuthenticationResponse>> authenticated(@RequestBody AuthenticationRequest request,
+                                                                   ServerHttpRequest httpRequest){
+        // before the user query and bcrypt
+        loginRateLimiter.acquire(request.getUsername(), clientIp(httpRequest));
+        return authenticationService.authenticate(request)
+                .map(result -> ApiResponse.<AuthenticationResponse>builder()
+                        .results(result)
+                        .build());
+    }
+
+    @PostMapping("/introspect")
+    public Mono<ApiResponse<IntrospectResponse>> authenticated(@RequestBody IntrospectRequest request) {
+        return authenticationService.introspect(request)
+                .map(result -> ApiResponse.<IntrospectResponse>builder()
+                        .results(result)
+                        .build());
+    }
+
+    private static String clientIp(ServerHttpRequest httpRequest) {
+        var remoteAddress = httpRequest.getRemoteAddress();
+        if (remoteAddress == null)
+            return "";
+        return remoteAddress.getAddress() != null
+                ? remoteAddress.getAddress().getHostAddress()
+                : remoteAddress.getHostString();
+    }
+}
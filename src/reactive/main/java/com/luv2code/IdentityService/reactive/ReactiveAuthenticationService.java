@@ -0,0 +1,265 @@
+package com.luv2code.IdentityService.reactive;
+
+import com.luv2code.IdentityService.audit.AuditLog;
+import com.luv2code.IdentityService.cache.RoleScopeCache;
+import com.luv2code.IdentityService.cache.TokenVerificationCache;
+import com.luv2code.IdentityService.configuration.JwtSigningKeys;
+import com.luv2code.IdentityService.dto.request.AuthenticationRequest;
+import com.luv2code.IdentityService.dto.request.IntrospectRequest;
+import com.luv2code.IdentityService.dto.response.AuthenticationResponse;
+import com.luv2code.IdentityService.dto.response.IntrospectResponse;
+import com.luv2code.IdentityService.entity.Permission;
+import com.luv2code.IdentityService.entity.Role;
+import com.luv2code.IdentityService.enums.AuditEventType;
+import com.luv2code.IdentityService.enums.ScopeFormat;
+import com.luv2code.IdentityService.exception.AppException;
+import com.luv2code.IdentityService.exception.ErrorCode;
+import com.luv2code.IdentityService.service.AuthenticationMetrics;
+import com.luv2code.IdentityService.service.AuthenticationMetrics.Failure;
+import com.luv2code.IdentityService.service.AuthenticationMetrics.Operation;
+import com.luv2code.IdentityService.service.AuthenticationMetrics.Phase;
+import com.luv2code.IdentityService.service.AuthenticationService;
+import com.nimbusds.jose.*;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.text.ParseException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Login and introspection of AuthenticationService without blocking: R2DBC for the reads and
+ * ReactivePasswordHashingService for bcrypt. Tokens carry the same claims and are signed with the same
+ * keys, so either deployment accepts the other's tokens, and logins and failed logins go to the same
+ * audit log.
+ *
+ * <p>This deployment has no view of the revocation filter or epochs that servlet nodes keep in memory,
+ * so every introspection checks revocation in the database; only the signature check is cached.
+ */
+@Profile(ReactiveAuthApplication.PROFILE)
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ReactiveAuthenticationService {
+
+    ReactiveAuthRepository authRepository;
+    ReactivePasswordHashingService passwordHashingService;
+    TokenVerificationCache tokenVerificationCache;
+    JwtSigningKeys jwtSigningKeys;
+    RoleScopeCache roleScopeCache;
+    AuthenticationMetrics metrics;
+    AuditLog auditLog;
+
+    @NonFinal
+    @Value("${jwt.valid-duration}")
+    protected long VALID_DURATION;
+
+    @NonFinal
+    @Value("${jwt.scope-format:full}")
+    protected ScopeFormat SCOPE_FORMAT = ScopeFormat.FULL;
+
+    public Mono<IntrospectResponse> introspect(IntrospectRequest request) {
+        var response = verifyToken(request.getToken())
+                .map(signedJWT -> true)
+                .onErrorResume(AppException.class, e -> Mono.just(false))
+                .map(isValid -> IntrospectResponse.builder()
+                        .valid(isValid)
+                        .build());
+        return timed(Operation.VERIFY, response, IntrospectResponse::isValid);
+    }
+
+    public Mono<AuthenticationResponse> authenticate(AuthenticationRequest request) {
+        var response = timed(Phase.USER_LOOKUP, authRepository.findCredentials(request.getUsername()))
+                .switchIfEmpty(Mono.error(() -> {
+                    authenticationFailed(Failure.UNKNOWN_USER, request.getUsername());
+                    return new AppException(ErrorCode.USER_NOT_EXISTED);
+                }))
+                .flatMap(credentials -> timed(Phase.PASSWORD_CHECK,
+                                passwordHashingService.matches(request.getPassword(), credentials.password()))
+                        .flatMap(authenticated -> {
+                            if (!authenticated) {
+                                authenticationFailed(Failure.BAD_PASSWORD, credentials.username());
+                                return Mono.error(new AppException(ErrorCode.UNAUTHENTICATED));
+                            }
+                            return timed(Phase.SCOPE_BUILD, buildScope(credentials.roleNames()));
+                        })
+                        .map(scope -> generateToken(credentials.username(), credentials.roleNames(), scope))
+                        .doOnNext(token -> auditLog.publish(AuditEventType.LOGIN, credentials.username(), null)))
+                .map(token -> AuthenticationResponse.builder()
+                        .token(token)
+                        .authenticated(true)
+                        .build());
+        return timed(Operation.AUTHENTICATE, response, result -> true);
+    }
+
+    /**
+     * Errors with {@link ErrorCode#UNAUTHENTICATED} when the token is malformed, badly signed, expired or
+     * revoked.
+     */
+    Mono<SignedJWT> verifyToken(String token) {
+        return Mono.defer(() -> {
+            var cached = tokenVerificationCache.get(token);
+            metrics.verificationCacheLookup(cached != null);
+            if (cached != null && !cached.isValid())
+                return Mono.error(new AppException(ErrorCode.UNAUTHENTICATED));
+
+            SignedJWT signedJWT;
+            if (cached != null) {
+                signedJWT = cached.signedJWT();
+            } else {
+                try {
+                    signedJWT = verifySignatureAndExpiry(token);
+                } catch (AppException | ParseException | JOSEException e) {
+                    tokenVerificationCache.putRejected(token);
+                    return Mono.error(new AppException(ErrorCode.UNAUTHENTICATED));
+                }
+            }
+
+            return timed(Phase.REVOCATION_CHECK, isRevoked(signedJWT))
+                    .flatMap(revoked -> {
+                        // revocation is permanent, the negative entry can never turn wrong
+                        if (revoked) {
+                            tokenVerificationCache.putRejected(token);
+                            return Mono.error(new AppException(ErrorCode.UNAUTHENTICATED));
+                        }
+                        if (cached == null)
+                            tokenVerificationCache.putVerified(token, signedJWT, expirationTime(signedJWT));
+                        return Mono.just(signedJWT);
+                    });
+        });
+    }
+
+    private SignedJWT verifySignatureAndExpiry(String token) throws ParseException, JOSEException {
+        long start = metrics.start();
+        try {
+            SignedJWT signedJWT = SignedJWT.parse(token);
+            Date expiryTime = signedJWT.getJWTClaimsSet().getExpirationTime();
+
+            var verified = signedJWT.verify(jwtSigningKeys.verifierFor(signedJWT.getHeader()));
+
+            if (!(verified && expiryTime != null && expiryTime.after(new Date())))
+                throw new AppException(ErrorCode.UNAUTHENTICATED);
+
+            return signedJWT;
+        } finally {
+            metrics.record(Phase.SIGNATURE_VERIFY, start);
+        }
+    }
+
+    private Mono<Boolean> isRevoked(SignedJWT signedJWT) {
+        try {
+            var claims = signedJWT.getJWTClaimsSet();
+            // epochs are kept to the second, as iat
+            var issuedAt = claims.getIssueTime().toInstant().truncatedTo(ChronoUnit.SECONDS);
+            return authRepository.isRevoked(claims.getJWTID(), claims.getSubject(), issuedAt);
+        } catch (ParseException e) {
+            return Mono.error(new IllegalStateException(e));
+        }
+    }
+
+    /**
+     * Same scope as AuthenticationService: cached fragments per role, the permissions of the rest in
+     * one query.
+     */
+    Mono<String> buildScope(List<String> roleNames) {
+        // compact tokens carry role names only
+        if (SCOPE_FORMAT == ScopeFormat.ROLES)
+            return Mono.just("");
+
+        Map<String, String> fragments = new LinkedHashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String roleName : roleNames) {
+            var fragment = roleScopeCache.cachedFragment(roleName);
+            fragments.put(roleName, fragment);
+            if (fragment == null)
+                missing.add(roleName);
+        }
+
+        if (missing.isEmpty())
+            return Mono.just(String.join(" ", fragments.values()));
+
+        long loadedAt = roleScopeCache.getVersion();
+        return authRepository.findPermissions(missing)
+                .map(permissions -> {
+                    for (String roleName : missing) {
+                        var role = Role.builder()
+                                .name(roleName)
+                                .permissions(permissions.getOrDefault(roleName, List.of()).stream()
+                                        .map(name -> Permission.builder().name(name).build())
+                                        .collect(Collectors.toSet()))
+                                .build();
+                        fragments.put(roleName, roleScopeCache.fragmentFor(role, loadedAt));
+                    }
+                    return String.join(" ", fragments.values());
+                });
+    }
+
+    String generateToken(String username, List<String> roleNames, String scope) {
+        JWSHeader header = jwtSigningKeys.newHeader();
+
+        JWTClaimsSet.Builder claims = new JWTClaimsSet.Builder()
+                .subject(username)
+                .issuer("devteria.com")
+                .issueTime(new Date())
+                .expirationTime(new Date(
+                        Instant.now().plus(VALID_DURATION, ChronoUnit.SECONDS).toEpochMilli()
+                ))
+                .jwtID(UUID.randomUUID().toString());
+
+        if (SCOPE_FORMAT == ScopeFormat.ROLES)
+            claims.claim(AuthenticationService.ROLES_CLAIM, roleNames);
+        else
+            claims.claim(AuthenticationService.SCOPE_CLAIM, scope);
+
+        JWSObject jwsObject = new JWSObject(header, new Payload(claims.build().toJSONObject()));
+
+        long start = metrics.start();
+        try {
+            jwsObject.sign(jwtSigningKeys.signer());
+            return jwsObject.serialize();
+        } catch (JOSEException e) {
+            throw new RuntimeException(e);
+        } finally {
+            metrics.record(Phase.TOKEN_SIGN, start);
+        }
+    }
+
+    private void authenticationFailed(Failure failure, String username) {
+        metrics.authenticationFailed(failure);
+        auditLog.publish(AuditEventType.LOGIN_FAILURE, username, failure.name().toLowerCase(Locale.ROOT));
+    }
+
+    private <T> Mono<T> timed(Phase phase, Mono<T> step) {
+        return Mono.defer(() -> {
+            long start = metrics.start();
+            return step.doFinally(signal -> metrics.record(phase, start));
+        });
+    }
+
+    private <T> Mono<T> timed(Operation operation, Mono<T> step, Predicate<T> succeeded) {
+        return Mono.defer(() -> {
+            long start = metrics.start();
+            return step.doOnSuccess(result -> metrics.record(operation, start, result != null && succeeded.test(result)))
+                    .doOnError(e -> metrics.record(operation, start, false));
+        });
+    }
+
+    private static Date expirationTime(SignedJWT signedJWT) {
+        try {
+            return signedJWT.getJWTClaimsSet().getExpirationTime();
+        } catch (ParseException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
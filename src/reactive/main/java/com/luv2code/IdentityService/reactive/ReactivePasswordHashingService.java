@@ -0,0 +1,88 @@
+package com.luv2code.IdentityService.reactive;
+
+import com.luv2code.IdentityService.exception.AppException;
+import com.luv2code.IdentityService.exception.ErrorCode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.concurrent.*;
+
+/**
+ * Reactive counterpart of PasswordHashingService: bcrypt runs on a scheduler over the same kind of
+ * CPU-sized pool with a bounded queue, never on a Netty event loop. A full queue or a hash that is not
+ * done within the timeout fails the login with {@link ErrorCode#SERVICE_BUSY}. Meters are shared with
+ * the servlet deployment.
+ */
+@Profile(ReactiveAuthApplication.PROFILE)
+@Service
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ReactivePasswordHashingService {
+
+    PasswordEncoder passwordEncoder;
+    ThreadPoolExecutor executor;
+    Scheduler scheduler;
+    Duration timeout;
+
+    Timer matchesTimer;
+    Counter rejected;
+
+    public ReactivePasswordHashingService(PasswordEncoder passwordEncoder,
+                                          MeterRegistry meterRegistry,
+                                          @Value("${password-hashing.pool-size:0}") int poolSize,
+                                          @Value("${password-hashing.queue-capacity:64}") int queueCapacity,
+                                          @Value("${password-hashing.timeout:PT10S}") Duration timeout) {
+        this.passwordEncoder = passwordEncoder;
+        this.timeout = timeout;
+
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("password-hashing-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.scheduler = Schedulers.fromExecutorService(
+                ExecutorServiceMetrics.monitor(meterRegistry, executor, "password.hashing"), "password-hashing");
+
+        this.matchesTimer = Timer.builder("password.hashing.duration")
+                .description("Time spent hashing or verifying one password, excluding queue wait")
+                .tag("operation", "matches")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("password.hashing.rejected")
+                .description("Hash requests rejected because the queue was full")
+                .register(meterRegistry);
+    }
+
+    public Mono<Boolean> matches(String rawPassword, String encodedPassword) {
+        return Mono.fromCallable(() -> matchesTimer.recordCallable(
+                        () -> passwordEncoder.matches(rawPassword, encodedPassword)))
+                .subscribeOn(scheduler)
+                .timeout(timeout)
+                .onErrorMap(RejectedExecutionException.class, e -> {
+                    rejected.increment();
+                    return new AppException(ErrorCode.SERVICE_BUSY);
+                })
+                .onErrorMap(TimeoutException.class, e -> new AppException(ErrorCode.SERVICE_BUSY));
+    }
+
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scheduler.dispose();
+    }
+}
@@ -0,0 +1,219 @@
+package com.luv2code.IdentityService.reactive;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.luv2code.IdentityService.audit.AuditProperties;
+import com.luv2code.IdentityService.dto.request.ApiResponse;
+import com.luv2code.IdentityService.dto.request.AuthenticationRequest;
+import com.luv2code.IdentityService.dto.request.IntrospectRequest;
+import com.luv2code.IdentityService.dto.response.AuthenticationResponse;
+import com.luv2code.IdentityService.exception.ErrorCode;
+import com.nimbusds.jwt.SignedJWT;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The reactive deployment end to end: Netty, WebFlux and R2DBC over an in-memory H2 with the tables
+ * the JPA model creates.
+ */
+@SpringBootTest(classes = ReactiveAuthApplication.class,
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "spring.main.web-application-type=reactive",
+                "spring.r2dbc.url=r2dbc:h2:mem:///reactiveauth;MODE=MySQL;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1",
+                "spring.r2dbc.username=sa",
+                "spring.r2dbc.password=",
+                "spring.sql.init.schema-locations=classpath:reactive-schema.sql",
+                "password-hashing.pool-size=2",
+                "audit.enabled=true",
+                "audit.dir=${java.io.tmpdir}/reactive-audit-${random.uuid}",
+                "audit.segment-size=64KB"
+        })
+@ActiveProfiles(ReactiveAuthApplication.PROFILE)
+public class ReactiveAuthenticationControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Autowired
+    private AuditProperties auditProperties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeEach
+    public void initData() {
+        for (String table : new String[]{"user_roles", "user", "role_permissions", "invalidated_token",
+                "user_revocation_epoch"})
+            databaseClient.sql("DELETE FROM " + table).then().block();
+
+        var id = uuidBytes(UUID.randomUUID());
+        databaseClient.sql("INSERT INTO user (id, username, password) VALUES (:id, :username, :password)")
+                .bind("id", id)
+                .bind("username", "john")
+                .bind("password", new BCryptPasswordEncoder(4).encode("12345678"))
+                .then().block();
+        for (String role : new String[]{"USER", "EDITOR"})
+            databaseClient.sql("INSERT INTO user_roles (user_id, roles_name) VALUES (:id, :role)")
+                    .bind("id", id)
+                    .bind("role", role)
+                    .then().block();
+        for (String permission : new String[]{"READ_DATA", "WRITE_DATA"})
+            databaseClient.sql("INSERT INTO role_permissions (role_name, permissions_name) VALUES ('EDITOR', :name)")
+                    .bind("name", permission)
+                    .then().block();
+    }
+
+    @Test
+    public void token_thenIntrospect_valid() throws Exception {
+        String token = login("john", "12345678");
+
+        var scope = SignedJWT.parse(token).getJWTClaimsSet().getStringClaim("scope");
+        assertEquals(Set.of("ROLE_USER", "ROLE_EDITOR", "READ_DATA", "WRITE_DATA"),
+                new HashSet<>(Arrays.asList(scope.split(" "))));
+        assertEquals("john", SignedJWT.parse(token).getJWTClaimsSet().getSubject());
+
+        introspect(token, true);
+        introspect(token, true);
+    }
+
+    @Test
+    public void token_badCredentials_sharedErrorCodes() {
+        postToken("john", "wrong-password")
+                .expectStatus().isEqualTo(ErrorCode.UNAUTHENTICATED.getStatusCode())
+                .expectBody().jsonPath("code").isEqualTo(ErrorCode.UNAUTHENTICATED.getCode());
+
+        postToken("nobody", "12345678")
+                .expectStatus().isEqualTo(ErrorCode.USER_NOT_EXISTED.getStatusCode())
+                .expectBody().jsonPath("code").isEqualTo(ErrorCode.USER_NOT_EXISTED.getCode());
+    }
+
+    @Test
+    public void token_publishesAuditEvents() throws Exception {
+        double written = writtenAuditEvents();
+
+        login("john", "12345678");
+        postToken("john", "wrong-password").expectStatus().isEqualTo(ErrorCode.UNAUTHENTICATED.getStatusCode());
+        postToken("nobody", "12345678").expectStatus().isEqualTo(ErrorCode.USER_NOT_EXISTED.getStatusCode());
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (writtenAuditEvents() < written + 3 && System.nanoTime() < deadline)
+            Thread.sleep(10);
+
+        var events = auditEvents();
+        var last = events.subList(events.size() - 3, events.size());
+        assertEquals(List.of("LOGIN:john:null", "LOGIN_FAILURE:john:bad_password", "LOGIN_FAILURE:nobody:unknown_user"),
+                last.stream().map(event -> event.get("type").asText() + ':' + event.get("username").asText() + ':'
+                        + event.path("detail").asText(null)).toList());
+    }
+
+    @Test
+    public void introspect_loggedOutToken_invalidAfterCachedVerification() throws Exception {
+        String token = login("john", "12345678");
+        introspect(token, true);
+
+        databaseClient.sql("INSERT INTO invalidated_token (id, expiry_time) VALUES (:id, :expiry)")
+                .bind("id", SignedJWT.parse(token).getJWTClaimsSet().getJWTID())
+                .bind("expiry", Instant.now().plus(1, ChronoUnit.HOURS))
+                .then().block();
+
+        introspect(token, false);
+    }
+
+    @Test
+    public void introspect_issuedBeforeRevocationEpoch_invalid() {
+        String token = login("john", "12345678");
+        introspect(token, true);
+
+        databaseClient.sql("INSERT INTO user_revocation_epoch (username, not_before) VALUES ('john', :notBefore)")
+                .bind("notBefore", Instant.now().plus(1, ChronoUnit.SECONDS).truncatedTo(ChronoUnit.SECONDS))
+                .then().block();
+
+        introspect(token, false);
+    }
+
+    @Test
+    public void introspect_malformedToken_invalid() {
+        introspect("not-a-token", false);
+    }
+
+    private String login(String username, String password) {
+        var response = postToken(username, password)
+                .expectStatus().isOk()
+                .expectBody(new ParameterizedTypeReference<ApiResponse<AuthenticationResponse>>() {})
+                .returnResult()
+                .getResponseBody();
+
+        assertNotNull(response);
+        assertEquals(0, response.getCode());
+        assertTrue(response.getResults().isAuthenticated());
+        return response.getResults().getToken();
+    }
+
+    private WebTestClient.ResponseSpec postToken(String username, String password) {
+        return webTestClient.post().uri("/auth/token")
+                .bodyValue(new AuthenticationRequest(username, password))
+                .exchange();
+    }
+
+    private void introspect(String token, boolean valid) {
+        webTestClient.post().uri("/auth/introspect")
+                .bodyValue(new IntrospectRequest(token))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("results.valid").isEqualTo(valid);
+    }
+
+    private double writtenAuditEvents() {
+        return meterRegistry.get("audit.events.written").counter().count();
+    }
+
+    // the open segment is padded with NULs after its last line
+    private List<JsonNode> auditEvents() throws IOException {
+        List<JsonNode> events = new ArrayList<>();
+        try (Stream<Path> segments = Files.list(auditProperties.getDir())) {
+            for (Path segment : segments.sorted().toList())
+                for (String line : Files.readAllLines(segment))
+                    if (!line.isEmpty() && line.charAt(0) != '\0')
+                        events.add(objectMapper.readTree(line));
+        }
+        return events;
+    }
+
+    private static byte[] uuidBytes(UUID uuid) {
+        return ByteBuffer.allocate(16)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+    }
+}
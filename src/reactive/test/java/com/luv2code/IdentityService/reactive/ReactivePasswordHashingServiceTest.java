@@ -0,0 +1,90 @@
+package com.luv2code.IdentityService.reactive;
+
+import com.luv2code.IdentityService.exception.AppException;
+import com.luv2code.IdentityService.exception.ErrorCode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReactivePasswordHashingServiceTest {
+
+    @Test
+    public void matches_runsOnHashingPool() {
+        var meterRegistry = new SimpleMeterRegistry();
+        var passwordHashingService = new ReactivePasswordHashingService(new BCryptPasswordEncoder(4), meterRegistry,
+                2, 4, Duration.ofSeconds(10));
+        String hash = new BCryptPasswordEncoder(4).encode("password");
+        AtomicReference<String> thread = new AtomicReference<>();
+
+        assertTrue(passwordHashingService.matches("password", hash)
+                .doOnNext(matches -> thread.set(Thread.currentThread().getName()))
+                .block());
+        assertFalse(passwordHashingService.matches("wrongpassword", hash).block());
+
+        assertTrue(thread.get().startsWith("password-hashing-"), thread.get());
+        assertEquals(2, meterRegistry.get("password.hashing.duration").tag("operation", "matches").timer().count());
+    }
+
+    @Test
+    public void matches_queueFull_serviceBusy() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        var meterRegistry = new SimpleMeterRegistry();
+        var passwordHashingService = new ReactivePasswordHashingService(blockingEncoder(started, release),
+                meterRegistry, 1, 1, Duration.ofSeconds(10));
+
+        var running = passwordHashingService.matches("a", "a").toFuture();
+        started.await();
+        var queued = passwordHashingService.matches("b", "b").toFuture();
+        while (passwordHashingService.getQueueDepth() == 0)
+            Thread.onSpinWait();
+
+        var exception = assertThrows(AppException.class, () -> passwordHashingService.matches("c", "c").block());
+        assertEquals(ErrorCode.SERVICE_BUSY, exception.getErrorCode());
+        assertEquals(1, meterRegistry.get("password.hashing.rejected").counter().count());
+
+        release.countDown();
+        assertTrue(running.get());
+        assertTrue(queued.get());
+    }
+
+    @Test
+    public void matches_slowerThanTimeout_serviceBusy() {
+        CountDownLatch release = new CountDownLatch(1);
+        var passwordHashingService = new ReactivePasswordHashingService(
+                blockingEncoder(new CountDownLatch(1), release), new SimpleMeterRegistry(), 1, 1, Duration.ofMillis(50));
+
+        Mono<Boolean> matches = passwordHashingService.matches("a", "a");
+        var exception = assertThrows(AppException.class, matches::block);
+        assertEquals(ErrorCode.SERVICE_BUSY, exception.getErrorCode());
+        release.countDown();
+    }
+
+    private static PasswordEncoder blockingEncoder(CountDownLatch started, CountDownLatch release) {
+        return new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                return rawPassword.toString();
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return rawPassword.toString().equals(encodedPassword);
+            }
+        };
+    }
+}
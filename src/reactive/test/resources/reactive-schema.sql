@@ -0,0 +1,6 @@
+-- the tables ReactiveAuthRepository reads, as Hibernate creates them for the JPA model
+CREATE TABLE IF NOT EXISTS user (id BINARY(16) NOT NULL, username VARCHAR(255), password VARCHAR(255), PRIMARY KEY (id), CONSTRAINT uk_user_username UNIQUE (username));
+CREATE TABLE IF NOT EXISTS user_roles (user_id BINARY(16) NOT NULL, roles_name VARCHAR(255) NOT NULL, PRIMARY KEY (user_id, roles_name));
+CREATE TABLE IF NOT EXISTS role_permissions (role_name VARCHAR(255) NOT NULL, permissions_name VARCHAR(255) NOT NULL, PRIMARY KEY (role_name, permissions_name));
+CREATE TABLE IF NOT EXISTS invalidated_token (id VARCHAR(255) NOT NULL, expiry_time TIMESTAMP(6), revoked_at TIMESTAMP(6), PRIMARY KEY (id));
+CREATE TABLE IF NOT EXISTS user_revocation_epoch (username VARCHAR(255) NOT NULL, not_before TIMESTAMP(6), PRIMARY KEY (username));
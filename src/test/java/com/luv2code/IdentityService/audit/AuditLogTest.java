@@ -0,0 +1,170 @@
+package com.luv2code.IdentityService.audit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.luv2code.IdentityService.dto.request.AuthenticationRequest;
+import com.luv2code.IdentityService.entity.Role;
+import com.luv2code.IdentityService.entity.User;
+import com.luv2code.IdentityService.enums.AuditEventType;
+import com.luv2code.IdentityService.enums.AuditOverflowPolicy;
+import com.luv2code.IdentityService.exception.AppException;
+import com.luv2code.IdentityService.service.AuthenticationServiceFixture;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+public class AuditLogTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void authenticate_publishesLoginsAndFailures() throws IOException {
+        var fixture = new AuthenticationServiceFixture(properties(64, AuditOverflowPolicy.DROP));
+        var user = User.builder()
+                .username("john")
+                .password(new BCryptPasswordEncoder(4).encode("12345678"))
+                .roles(Set.of(Role.builder().name("USER").permissions(Set.of()).build()))
+                .build();
+        when(fixture.userRepository.findWithRolesByUsername("john")).thenReturn(Optional.of(user));
+        when(fixture.userRepository.findWithRolesByUsername("nobody")).thenReturn(Optional.empty());
+
+        fixture.authenticationService.authenticate(new AuthenticationRequest("john", "12345678"));
+        assertThrows(AppException.class,
+                () -> fixture.authenticationService.authenticate(new AuthenticationRequest("john", "wrong-password")));
+        assertThrows(AppException.class,
+                () -> fixture.authenticationService.authenticate(new AuthenticationRequest("nobody", "12345678")));
+        fixture.auditLog.close();
+
+        var events = readEvents();
+        assertEquals(3, events.size());
+        assertEquals(AuditEventType.LOGIN.name(), events.get(0).get("type").asText());
+        assertEquals("john", events.get(0).get("username").asText());
+        assertFalse(events.get(0).has("detail"));
+        assertEquals("bad_password", events.get(1).get("detail").asText());
+        assertEquals("nobody", events.get(2).get("username").asText());
+        assertEquals("unknown_user", events.get(2).get("detail").asText());
+        assertTrue(events.get(0).get("timestamp").isTextual());
+    }
+
+    @Test
+    public void publish_bufferFull_dropPolicyDiscards() throws IOException {
+        var meterRegistry = new SimpleMeterRegistry();
+        var auditLog = new AuditLog(properties(2, AuditOverflowPolicy.DROP), objectMapper, meterRegistry);
+        awaitIdleWriter(auditLog);
+
+        for (int i = 0; i < 3; i++)
+            auditLog.publish(AuditEventType.LOGOUT, "user" + i, null);
+
+        assertEquals(1, meterRegistry.get("audit.events.dropped").counter().count());
+        assertEquals(2, meterRegistry.get("audit.buffer.size").gauge().value());
+
+        auditLog.close();
+        assertEquals(2, readEvents().size());
+        assertEquals(2, meterRegistry.get("audit.events.written").counter().count());
+    }
+
+    @Test
+    public void publish_bufferFull_blockPolicyWaitsForWriter() throws IOException {
+        var meterRegistry = new SimpleMeterRegistry();
+        var auditLog = new AuditLog(properties(2, AuditOverflowPolicy.BLOCK), objectMapper, meterRegistry);
+        awaitIdleWriter(auditLog);
+
+        for (int i = 0; i < 3; i++)
+            auditLog.publish(AuditEventType.LOGOUT, "user" + i, null);
+        auditLog.close();
+
+        assertEquals(0, meterRegistry.get("audit.events.dropped").counter().count());
+        assertEquals(List.of("user0", "user1", "user2"),
+                readEvents().stream().map(event -> event.get("username").asText()).toList());
+    }
+
+    @Test
+    public void publish_racingClose_everyEventWrittenOrCountedAsDropped() throws Exception {
+        var meterRegistry = new SimpleMeterRegistry();
+        var properties = properties(1024, AuditOverflowPolicy.DROP);
+        properties.setPollInterval(Duration.ofMillis(1));
+        var auditLog = new AuditLog(properties, objectMapper, meterRegistry);
+
+        int perPublisher = 2000;
+        List<Thread> publishers = new ArrayList<>();
+        for (int p = 0; p < 2; p++) {
+            var publisher = new Thread(() -> {
+                for (int i = 0; i < perPublisher; i++)
+                    auditLog.publish(AuditEventType.LOGIN, "user" + i, null);
+            });
+            publishers.add(publisher);
+            publisher.start();
+        }
+        auditLog.close();
+        for (Thread publisher : publishers)
+            publisher.join();
+
+        double written = meterRegistry.get("audit.events.written").counter().count();
+        double dropped = meterRegistry.get("audit.events.dropped").counter().count();
+        assertEquals(2 * perPublisher, written + dropped);
+        assertEquals(written, readEvents().size());
+    }
+
+    @Test
+    public void enabledWithoutDir_rejected() {
+        var properties = properties(64, AuditOverflowPolicy.DROP);
+        properties.setDir(null);
+
+        assertThrows(IllegalStateException.class,
+                () -> new AuditLog(properties, objectMapper, new SimpleMeterRegistry()));
+    }
+
+    @Test
+    public void defaults_disabledWithoutDir() {
+        var auditLog = new AuditLog(new AuditProperties(), objectMapper, new SimpleMeterRegistry());
+
+        assertNull(ReflectionTestUtils.getField(auditLog, "writerThread"));
+        auditLog.close();
+    }
+
+    private AuditProperties properties(int bufferCapacity, AuditOverflowPolicy overflowPolicy) {
+        var properties = new AuditProperties();
+        properties.setEnabled(true);
+        properties.setDir(dir);
+        properties.setBufferCapacity(bufferCapacity);
+        properties.setOverflowPolicy(overflowPolicy);
+        properties.setBlockTimeout(Duration.ofSeconds(5));
+        // the writer only wakes up when BLOCK or close() unparks it
+        properties.setPollInterval(Duration.ofHours(1));
+        return properties;
+    }
+
+    private static void awaitIdleWriter(AuditLog auditLog) {
+        var writerThread = (Thread) ReflectionTestUtils.getField(auditLog, "writerThread");
+        while (writerThread.getState() != Thread.State.TIMED_WAITING)
+            Thread.onSpinWait();
+    }
+
+    private List<JsonNode> readEvents() throws IOException {
+        List<JsonNode> events = new ArrayList<>();
+        try (Stream<Path> segments = Files.list(dir)) {
+            for (Path segment : segments.sorted().toList())
+                for (String line : Files.readAllLines(segment))
+                    events.add(objectMapper.readTree(line));
+        }
+        return events;
+    }
+}
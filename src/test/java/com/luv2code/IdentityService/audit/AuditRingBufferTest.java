@@ -0,0 +1,77 @@
+package com.luv2code.IdentityService.audit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AuditRingBufferTest {
+
+    @Test
+    public void offer_full_failsWithoutWaiting() {
+        var buffer = new AuditRingBuffer<Integer>(3);
+        assertEquals(4, buffer.capacity());
+
+        for (int i = 0; i < 4; i++)
+            assertTrue(buffer.offer(i));
+        assertFalse(buffer.offer(4));
+        assertEquals(4, buffer.size());
+
+        List<Integer> drained = new ArrayList<>();
+        assertEquals(2, buffer.drain(drained::add, 2));
+        assertTrue(buffer.offer(4));
+        assertTrue(buffer.offer(5));
+        assertEquals(4, buffer.drain(drained::add, 10));
+
+        assertEquals(List.of(0, 1, 2, 3, 4, 5), drained);
+        assertEquals(0, buffer.size());
+    }
+
+    @Test
+    public void drain_manyProducers_everyElementOnceInProducerOrder() throws Exception {
+        int producers = 4;
+        int perProducer = 10_000;
+        var buffer = new AuditRingBuffer<long[]>(256);
+        var start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+
+        for (int p = 0; p < producers; p++) {
+            long producer = p;
+            executor.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (long i = 0; i < perProducer; i++) {
+                    var element = new long[]{producer, i};
+                    while (!buffer.offer(element))
+                        Thread.yield();
+                }
+            });
+        }
+
+        long[] next = new long[producers];
+        int received = 0;
+        start.countDown();
+        while (received < producers * perProducer) {
+            received += buffer.drain(element -> {
+                assertEquals(next[(int) element[0]], element[1]);
+                next[(int) element[0]]++;
+            }, 16);
+        }
+
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        for (long count : next)
+            assertEquals(perProducer, count);
+        assertEquals(0, buffer.drain(element -> fail("unexpected element"), 16));
+    }
+}
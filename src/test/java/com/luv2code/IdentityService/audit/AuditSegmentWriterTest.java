@@ -0,0 +1,130 @@
+package com.luv2code.IdentityService.audit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AuditSegmentWriterTest {
+
+    @TempDir
+    Path dir;
+
+    private final MutableClock clock = new MutableClock(Instant.now().truncatedTo(ChronoUnit.SECONDS));
+
+    @Test
+    public void append_rotatesWhenFull_andCutsSegmentsToContent() throws IOException {
+        try (var writer = writer(32, Duration.ofHours(1), Duration.ofDays(1), 100)) {
+            for (int i = 0; i < 5; i++)
+                writer.append(("record-" + i + "-abcdef").getBytes(StandardCharsets.UTF_8)); // 16 bytes per line
+        }
+
+        assertEquals(List.of("audit-0000000001.log", "audit-0000000002.log", "audit-0000000003.log"), names());
+        assertEquals(List.of("record-0-abcdef", "record-1-abcdef"), Files.readAllLines(segment(1)));
+        assertEquals(List.of("record-4-abcdef"), Files.readAllLines(segment(3)));
+        assertEquals(16, Files.size(segment(3)));
+    }
+
+    @Test
+    public void append_rotatesWhenOlderThanInterval() throws IOException {
+        try (var writer = writer(1024, Duration.ofMinutes(10), Duration.ofDays(1), 100)) {
+            writer.append(bytes("first"));
+            clock.advance(Duration.ofMinutes(9));
+            writer.append(bytes("second"));
+            clock.advance(Duration.ofMinutes(1));
+            writer.append(bytes("third"));
+        }
+
+        assertEquals(List.of("first", "second"), Files.readAllLines(segment(1)));
+        assertEquals(List.of("third"), Files.readAllLines(segment(2)));
+    }
+
+    @Test
+    public void newSegment_deletesExpiredAndExcessSegments() throws IOException {
+        try (var writer = writer(8, Duration.ofHours(1), Duration.ofDays(1), 3)) {
+            for (int i = 0; i < 5; i++)
+                writer.append(bytes("line" + i));
+        }
+        // at most three segments, the newest
+        assertEquals(List.of("audit-0000000003.log", "audit-0000000004.log", "audit-0000000005.log"), names());
+
+        Files.setLastModifiedTime(segment(3), FileTime.from(clock.instant().minus(Duration.ofDays(2))));
+        try (var writer = writer(8, Duration.ofHours(1), Duration.ofDays(1), 3)) {
+            writer.append(bytes("line5"));
+        }
+
+        // numbering continues after a restart, segment 3 is past retention
+        assertEquals(List.of("audit-0000000004.log", "audit-0000000005.log", "audit-0000000006.log"), names());
+        assertEquals(List.of("line5"), Files.readAllLines(segment(6)));
+    }
+
+    @Test
+    public void append_recordLargerThanSegment_rejected() throws IOException {
+        try (var writer = writer(8, Duration.ofHours(1), Duration.ofDays(1), 100)) {
+            assertThrows(IllegalArgumentException.class, () -> writer.append(bytes("much too long")));
+            writer.append(bytes("fits"));
+        }
+        assertEquals(List.of("fits"), Files.readAllLines(segment(1)));
+    }
+
+    private AuditSegmentWriter writer(long segmentSize, Duration rotationInterval, Duration retention,
+                                      int maxSegments) throws IOException {
+        return new AuditSegmentWriter(dir, segmentSize, rotationInterval, retention, maxSegments, clock);
+    }
+
+    private Path segment(int index) {
+        return dir.resolve("audit-%010d.log".formatted(index));
+    }
+
+    private List<String> names() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.map(file -> file.getFileName().toString()).sorted().toList();
+        }
+    }
+
+    private static byte[] bytes(String record) {
+        return record.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.luv2code.IdentityService.authorization;
+
+import com.luv2code.IdentityService.configuration.MethodSecurityConfig;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringJUnitConfig(HasAuthorityAuthorizationManagerTest.Config.class)
+public class HasAuthorityAuthorizationManagerTest {
+
+    @Configuration
+    @EnableMethodSecurity
+    @Import({MethodSecurityConfig.class, AuthorityIndex.class})
+    static class Config {
+        @Bean
+        AdminOnly adminOnly() {
+            return new AdminOnly();
+        }
+    }
+
+    static class AdminOnly {
+        @HasAuthority("ROLE_ADMIN")
+        public String run() {
+            return "ok";
+        }
+    }
+
+    @Autowired
+    private AdminOnly adminOnly;
+
+    @Autowired
+    private AuthorityIndex authorityIndex;
+
+    private static Jwt jwt(String scope) {
+        return Jwt.withTokenValue("token")
+                .header("alg", "HS512")
+                .subject("john")
+                .claim("scope", scope)
+                .issuedAt(Instant.now())
+                .expiresAt(Instant.now().plusSeconds(60))
+                .build();
+    }
+
+    @Test
+    public void authoritySet_containsOnlyGrantedIndices() {
+        var set = AuthoritySet.of(List.of("ROLE_USER", "READ_DATA"), authorityIndex);
+
+        assertTrue(set.contains(authorityIndex.indexOf("ROLE_USER")));
+        assertTrue(set.contains(authorityIndex.indexOf("READ_DATA")));
+        assertFalse(set.contains(authorityIndex.indexOf("ROLE_ADMIN")));
+        assertFalse(set.contains(authorityIndex.indexOf("ROLE_ADMIN") + 1000));
+        assertEquals(2, set.cardinality());
+    }
+
+    @Test
+    public void converter_sharesAuthoritiesBetweenTokensWithTheSameScope() {
+        var converter = new IndexedJwtAuthenticationConverter(authorityIndex, 100);
+
+        var first = (IndexedJwtAuthenticationToken) converter.convert(jwt("ROLE_USER READ_DATA"));
+        var second = (IndexedJwtAuthenticationToken) converter.convert(jwt("ROLE_USER READ_DATA"));
+
+        assertEquals("john", first.getName());
+        assertEquals(List.of("ROLE_USER", "READ_DATA"),
+                first.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
+        assertSame(first.getAuthorities(), second.getAuthorities());
+        assertSame(first.getAuthoritySet(), second.getAuthoritySet());
+    }
+
+    @Test
+    public void indexedToken_checkedByBit() {
+        var converter = new IndexedJwtAuthenticationConverter(authorityIndex, 100);
+        try {
+            SecurityContextHolder.getContext().setAuthentication(converter.convert(jwt("ROLE_ADMIN READ_DATA")));
+            assertEquals("ok", adminOnly.run());
+
+            SecurityContextHolder.getContext().setAuthentication(converter.convert(jwt("ROLE_USER READ_DATA")));
+            assertThrows(AccessDeniedException.class, adminOnly::run);
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    @Test
+    public void otherAuthentication_fallsBackToAuthorityScan() {
+        try {
+            SecurityContextHolder.getContext().setAuthentication(
+                    new TestingAuthenticationToken("john", null, "ROLE_ADMIN"));
+            assertEquals("ok", adminOnly.run());
+
+            SecurityContextHolder.getContext().setAuthentication(
+                    new TestingAuthenticationToken("john", null, "ROLE_USER"));
+            assertThrows(AccessDeniedException.class, adminOnly::run);
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.luv2code.IdentityService.cache;
+
+import com.luv2code.IdentityService.datasource.ReadYourWrites;
+import com.luv2code.IdentityService.entity.InvalidatedToken;
+import com.luv2code.IdentityService.repository.InvalidatedTokenRepository;
+import com.luv2code.IdentityService.service.InvalidatedTokenPurgeService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+/**
+ * Two nodes, each with its own filter, sharing one database.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:revokedfilter;MODE=MySQL;NON_KEYWORDS=USER",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class RevokedTokenFilterMultiNodeTest {
+
+    @Autowired
+    private InvalidatedTokenRepository invalidatedTokenRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private RevokedTokenFilter nodeA;
+
+    private RevokedTokenFilter nodeB;
+
+    @BeforeEach
+    public void setup() {
+        invalidatedTokenRepository.deleteAll();
+
+        nodeA = node();
+        nodeB = node();
+        nodeA.load();
+        nodeB.load();
+    }
+
+    private RevokedTokenFilter node() {
+        InvalidatedTokenPurgeService invalidatedTokenPurgeService = Mockito.mock(InvalidatedTokenPurgeService.class);
+        when(invalidatedTokenPurgeService.purgeCutoff()).thenReturn(Instant.now().minus(1, ChronoUnit.DAYS));
+
+        var filter = new RevokedTokenFilter(invalidatedTokenRepository, invalidatedTokenPurgeService,
+                new ReadYourWrites(false, Duration.ofSeconds(5), 100), transactionManager,
+                new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(filter, "expectedInsertions", 1000L);
+        ReflectionTestUtils.setField(filter, "fpp", 0.001);
+        ReflectionTestUtils.setField(filter, "clockSkew", Duration.ofMinutes(1));
+        return filter;
+    }
+
+    private void revokeOn(RevokedTokenFilter node, String jti) {
+        invalidatedTokenRepository.save(InvalidatedToken.builder()
+                .id(jti)
+                .expiryTime(Date.from(Instant.now().plus(1, ChronoUnit.HOURS)))
+                .revokedAt(Instant.now())
+                .build());
+        node.add(jti);
+    }
+
+    @Test
+    public void revocationOnOneNode_seenByTheOtherAfterRefresh() {
+        revokeOn(nodeA, "revoked-on-a");
+
+        assertTrue(nodeA.isRevoked("revoked-on-a"));
+        // node B's filter rules the JTI out until it polls
+        assertFalse(nodeB.isRevoked("revoked-on-a"));
+
+        nodeB.refresh();
+
+        assertTrue(nodeB.isRevoked("revoked-on-a"));
+    }
+
+    @Test
+    public void refresh_isIdempotent() {
+        revokeOn(nodeA, "revoked-on-a");
+
+        nodeB.refresh();
+        nodeB.refresh();
+        revokeOn(nodeB, "revoked-on-b");
+        nodeA.refresh();
+
+        assertTrue(nodeB.isRevoked("revoked-on-a"));
+        assertTrue(nodeA.isRevoked("revoked-on-b"));
+        assertFalse(nodeA.isRevoked("never-revoked"));
+    }
+}
@@ -0,0 +1,105 @@
+package com.luv2code.IdentityService.cache;
+
+import com.luv2code.IdentityService.datasource.ReadYourWrites;
+import com.luv2code.IdentityService.repository.InvalidatedTokenRepository;
+import com.luv2code.IdentityService.service.InvalidatedTokenPurgeService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class RevokedTokenFilterTest {
+
+    private InvalidatedTokenRepository invalidatedTokenRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private RevokedTokenFilter revokedTokenFilter;
+
+    @BeforeEach
+    public void setup() {
+        invalidatedTokenRepository = Mockito.mock(InvalidatedTokenRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+
+        InvalidatedTokenPurgeService invalidatedTokenPurgeService = Mockito.mock(InvalidatedTokenPurgeService.class);
+        when(invalidatedTokenPurgeService.purgeCutoff()).thenReturn(Instant.now());
+
+        revokedTokenFilter = new RevokedTokenFilter(invalidatedTokenRepository, invalidatedTokenPurgeService,
+                new ReadYourWrites(false, Duration.ofSeconds(5), 100),
+                Mockito.mock(PlatformTransactionManager.class), meterRegistry);
+        ReflectionTestUtils.setField(revokedTokenFilter, "expectedInsertions", 1000L);
+        ReflectionTestUtils.setField(revokedTokenFilter, "fpp", 0.001);
+        ReflectionTestUtils.setField(revokedTokenFilter, "clockSkew", Duration.ofMinutes(1));
+    }
+
+    @Test
+    public void isRevoked_beforeLoad_fallsThroughToDatabase() {
+        when(invalidatedTokenRepository.existsById("jti")).thenReturn(true);
+
+        assertTrue(revokedTokenFilter.isRevoked("jti"));
+        verify(invalidatedTokenRepository, times(1)).existsById("jti");
+    }
+
+    @Test
+    public void isRevoked_unknownJti_skipsDatabase() {
+        when(invalidatedTokenRepository.streamIdsByExpiryTimeAfter(ArgumentMatchers.any()))
+                .thenReturn(Stream.of("revoked-1", "revoked-2"));
+        revokedTokenFilter.rebuild();
+
+        for (int i = 0; i < 100; i++)
+            revokedTokenFilter.isRevoked(UUID.randomUUID().toString());
+
+        assertTrue(meterRegistry.get("jwt.revocation.filter.db.lookups").counter().count() < 5);
+    }
+
+    @Test
+    public void isRevoked_loadedAndAddedJti_checkedAgainstDatabase() {
+        when(invalidatedTokenRepository.streamIdsByExpiryTimeAfter(ArgumentMatchers.any()))
+                .thenReturn(Stream.of("revoked-1"));
+        when(invalidatedTokenRepository.existsById(anyString())).thenReturn(true);
+        revokedTokenFilter.rebuild();
+        revokedTokenFilter.add("revoked-2");
+
+        assertTrue(revokedTokenFilter.isRevoked("revoked-1"));
+        assertTrue(revokedTokenFilter.isRevoked("revoked-2"));
+        assertEquals(2, meterRegistry.get("jwt.revocation.filter.db.lookups").counter().count());
+    }
+
+    @Test
+    public void add_duringRebuild_keptAfterSwap() {
+        when(invalidatedTokenRepository.streamIdsByExpiryTimeAfter(ArgumentMatchers.any()))
+                .thenReturn(Stream.of("revoked-1").peek(id -> revokedTokenFilter.add("revoked-during-rebuild")));
+        when(invalidatedTokenRepository.existsById(anyString())).thenReturn(true);
+        revokedTokenFilter.rebuild();
+
+        assertTrue(revokedTokenFilter.isRevoked("revoked-during-rebuild"));
+    }
+
+    @Test
+    public void refresh_addsJtisRevokedSinceLastRefresh() {
+        when(invalidatedTokenRepository.streamIdsByExpiryTimeAfter(ArgumentMatchers.any()))
+                .thenReturn(Stream.empty());
+        when(invalidatedTokenRepository.findIdsByRevokedAtGreaterThanEqual(ArgumentMatchers.any()))
+                .thenReturn(List.of("revoked-elsewhere"));
+        when(invalidatedTokenRepository.existsById(anyString())).thenReturn(true);
+        revokedTokenFilter.rebuild();
+        revokedTokenFilter.refresh();
+
+        assertTrue(revokedTokenFilter.isRevoked("revoked-elsewhere"));
+        verify(invalidatedTokenRepository).findIdsByRevokedAtGreaterThanEqual(
+                ArgumentMatchers.argThat(since -> since.isBefore(Instant.now().minusSeconds(59))));
+    }
+}
@@ -0,0 +1,71 @@
+package com.luv2code.IdentityService.cache;
+
+import com.luv2code.IdentityService.entity.Permission;
+import com.luv2code.IdentityService.entity.Role;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class RoleScopeCacheTest {
+
+    private final RoleScopeCache roleScopeCache = new RoleScopeCache(Duration.ofMinutes(5));
+
+    private Role role(String name, String... permissions) {
+        Set<Permission> permissionSet = new LinkedHashSet<>();
+        for (String permission : permissions)
+            permissionSet.add(Permission.builder().name(permission).build());
+        return Role.builder().name(name).permissions(permissionSet).build();
+    }
+
+    // the version read before "loading" the role, as the callers do
+    private String fragmentFor(Role role) {
+        return roleScopeCache.fragmentFor(role, roleScopeCache.getVersion());
+    }
+
+    @Test
+    public void fragmentFor_roleWithPermissions_joinsRoleAndPermissions() {
+        assertEquals("ROLE_ADMIN CREATE_DATA APPROVE_POST",
+                fragmentFor(role("ADMIN", "CREATE_DATA", "APPROVE_POST")));
+        assertEquals("ROLE_USER", fragmentFor(role("USER")));
+    }
+
+    @Test
+    public void fragmentFor_cachedUntilInvalidated() {
+        fragmentFor(role("ADMIN", "CREATE_DATA"));
+
+        Role changed = role("ADMIN", "CREATE_DATA", "APPROVE_POST");
+        assertEquals("ROLE_ADMIN CREATE_DATA", fragmentFor(changed));
+
+        roleScopeCache.invalidateAll();
+        assertEquals("ROLE_ADMIN CREATE_DATA APPROVE_POST", fragmentFor(changed));
+    }
+
+    @Test
+    public void fragmentFor_sameModelVersion_permissionsNotTouched() {
+        Role role = role("ADMIN", "CREATE_DATA");
+        fragmentFor(role);
+
+        role.setPermissions(null);
+
+        assertEquals("ROLE_ADMIN CREATE_DATA", fragmentFor(role));
+    }
+
+    @Test
+    public void fragmentFor_roleLoadedBeforeChange_notServedAfterIt() {
+        long loadedAt = roleScopeCache.getVersion();
+        Role stale = role("ADMIN", "CREATE_DATA");
+
+        // the change commits between loading the role and building its fragment
+        roleScopeCache.invalidateAll();
+
+        assertEquals("ROLE_ADMIN CREATE_DATA", roleScopeCache.fragmentFor(stale, loadedAt));
+        assertNull(roleScopeCache.cachedFragment("ADMIN"));
+        assertEquals("ROLE_ADMIN CREATE_DATA APPROVE_POST",
+                fragmentFor(role("ADMIN", "CREATE_DATA", "APPROVE_POST")));
+    }
+}
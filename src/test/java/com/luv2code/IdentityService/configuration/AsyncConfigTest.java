@@ -0,0 +1,41 @@
+package com.luv2code.IdentityService.configuration;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AsyncConfigTest {
+
+    @AfterEach
+    public void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void asyncExecutor_virtualThreads_propagatesSecurityContext() throws Exception {
+        var virtualThreads = new SimpleAsyncTaskExecutor();
+        virtualThreads.setVirtualThreads(true);
+        var executor = new AsyncConfig(virtualThreads).getAsyncExecutor();
+
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("admin", null, List.of()));
+
+        var seen = new CompletableFuture<Authentication>();
+        var isVirtual = new CompletableFuture<Boolean>();
+        executor.execute(() -> {
+            isVirtual.complete(Thread.currentThread().isVirtual());
+            seen.complete(SecurityContextHolder.getContext().getAuthentication());
+        });
+
+        assertTrue(isVirtual.get());
+        assertEquals("admin", seen.get().getName());
+    }
+}
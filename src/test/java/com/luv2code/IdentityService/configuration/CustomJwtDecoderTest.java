@@ -0,0 +1,169 @@
+package com.luv2code.IdentityService.configuration;
+
+import com.luv2code.IdentityService.dto.request.LogoutRequest;
+import com.luv2code.IdentityService.entity.Permission;
+import com.luv2code.IdentityService.entity.Role;
+import com.luv2code.IdentityService.entity.User;
+import com.luv2code.IdentityService.enums.ScopeFormat;
+import com.luv2code.IdentityService.repository.InvalidatedTokenRepository;
+import com.luv2code.IdentityService.service.AuthenticationService;
+import com.luv2code.IdentityService.service.AuthenticationServiceFixture;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jwt.SignedJWT;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class CustomJwtDecoderTest {
+
+    private AuthenticationServiceFixture fixture;
+
+    private InvalidatedTokenRepository invalidatedTokenRepository;
+
+    private AuthenticationService authenticationService;
+
+    private CustomJwtDecoder customJwtDecoder;
+
+    @BeforeEach
+    public void setup() {
+        fixture = new AuthenticationServiceFixture();
+        invalidatedTokenRepository = fixture.invalidatedTokenRepository;
+        authenticationService = fixture.authenticationService;
+
+        customJwtDecoder = new CustomJwtDecoder();
+        ReflectionTestUtils.setField(customJwtDecoder, "authenticationService", authenticationService);
+        ReflectionTestUtils.setField(customJwtDecoder, "roleScopeExpander", fixture.roleScopeExpander);
+    }
+
+    private String createToken(Date expirationTime) throws JOSEException {
+        return fixture.createToken("john", expirationTime);
+    }
+
+    @Test
+    public void decode_validToken_success() throws JOSEException {
+        String token = createToken(Date.from(Instant.now().plus(1, ChronoUnit.HOURS)));
+
+        Jwt jwt = customJwtDecoder.decode(token);
+
+        assertEquals("john", jwt.getSubject());
+        assertEquals("ROLE_USER", jwt.getClaimAsString("scope"));
+        assertEquals("HS512", jwt.getHeaders().get("alg"));
+        assertNotNull(jwt.getExpiresAt());
+        verify(invalidatedTokenRepository, times(1)).existsById(anyString());
+    }
+
+    @Test
+    public void decode_revokedToken_failure() throws JOSEException {
+        String token = createToken(Date.from(Instant.now().plus(1, ChronoUnit.HOURS)));
+        when(invalidatedTokenRepository.existsById(anyString())).thenReturn(true);
+
+        assertThrows(JwtException.class, () -> customJwtDecoder.decode(token));
+    }
+
+    @Test
+    public void decode_expiredToken_failure() throws JOSEException {
+        String token = createToken(Date.from(Instant.now().minus(1, ChronoUnit.HOURS)));
+
+        assertThrows(JwtException.class, () -> customJwtDecoder.decode(token));
+    }
+
+    @Test
+    public void decode_malformedToken_failure() {
+        assertThrows(JwtException.class, () -> customJwtDecoder.decode("invalidToken"));
+    }
+
+    @Test
+    public void decode_sameTokenTwice_revocationCheckedOnce() throws JOSEException {
+        String token = createToken(Date.from(Instant.now().plus(1, ChronoUnit.HOURS)));
+
+        customJwtDecoder.decode(token);
+        customJwtDecoder.decode(token);
+
+        verify(invalidatedTokenRepository, times(1)).existsById(anyString());
+    }
+
+    @Test
+    public void decode_afterLogout_failure() throws Exception {
+        String token = createToken(Date.from(Instant.now().plus(1, ChronoUnit.HOURS)));
+        customJwtDecoder.decode(token);
+
+        authenticationService.logout(new LogoutRequest(token));
+        when(invalidatedTokenRepository.existsById(anyString())).thenReturn(true);
+
+        assertThrows(JwtException.class, () -> customJwtDecoder.decode(token));
+    }
+
+    @Test
+    public void decode_malformedTokenTwice_rejectedFromCache() {
+        assertThrows(JwtException.class, () -> customJwtDecoder.decode("invalidToken"));
+        assertThrows(JwtException.class, () -> customJwtDecoder.decode("invalidToken"));
+
+        verifyNoInteractions(invalidatedTokenRepository);
+    }
+
+    private User userWithRoles() {
+        var admin = Role.builder().name("ADMIN").permissions(Set.of(
+                Permission.builder().name("CREATE_DATA").build(),
+                Permission.builder().name("APPROVE_POST").build())).build();
+        var user = Role.builder().name("USER").permissions(Set.of()).build();
+        when(fixture.roleRepository.findAllById(any())).thenReturn(List.of(admin, user));
+        return User.builder().username("john").roles(Set.of(admin, user)).build();
+    }
+
+    private String generateToken(User user, ScopeFormat scopeFormat) {
+        ReflectionTestUtils.setField(authenticationService, "SCOPE_FORMAT", scopeFormat);
+        return ReflectionTestUtils.invokeMethod(authenticationService, "generateToken", user,
+                fixture.roleScopeCache.getVersion());
+    }
+
+    private static Set<String> scopeOf(Jwt jwt) {
+        return Set.copyOf(Arrays.asList(jwt.getClaimAsString("scope").split(" ")));
+    }
+
+    @Test
+    public void decode_compactToken_scopeExpandedFromRoles() throws Exception {
+        var user = userWithRoles();
+        String full = generateToken(user, ScopeFormat.FULL);
+        String compact = generateToken(user, ScopeFormat.ROLES);
+
+        assertNull(SignedJWT.parse(compact).getJWTClaimsSet().getClaim("scope"));
+        assertTrue(compact.length() < full.length());
+        assertEquals(scopeOf(customJwtDecoder.decode(full)), scopeOf(customJwtDecoder.decode(compact)));
+        assertEquals(Set.of("ROLE_ADMIN", "CREATE_DATA", "APPROVE_POST", "ROLE_USER"),
+                scopeOf(customJwtDecoder.decode(compact)));
+    }
+
+    @Test
+    public void decode_compactTokens_rolesLoadedOnce() {
+        var user = userWithRoles();
+
+        customJwtDecoder.decode(generateToken(user, ScopeFormat.ROLES));
+        customJwtDecoder.decode(generateToken(user, ScopeFormat.ROLES));
+
+        verify(fixture.roleRepository, times(1)).findAllById(any());
+    }
+
+    @Test
+    public void decode_compactTokenWithDeletedRole_roleGrantsNothing() {
+        var user = userWithRoles();
+        String token = generateToken(user, ScopeFormat.ROLES);
+        when(fixture.roleRepository.findAllById(any()))
+                .thenReturn(List.of(Role.builder().name("USER").permissions(Set.of()).build()));
+
+        assertEquals("ROLE_USER", customJwtDecoder.decode(token).getClaimAsString("scope"));
+    }
+}
@@ -0,0 +1,65 @@
+package com.luv2code.IdentityService.configuration;
+
+import com.luv2code.IdentityService.exception.AppException;
+import com.nimbusds.jose.*;
+import com.nimbusds.jose.crypto.MACSigner;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JwtSigningKeysTest {
+
+    private static final String SIGNER_KEY = "clA8K37zrOY5EoPGI0TLUCJZmCik3ZBpgju5SZHny3nR/TcZYRz4lh3FIkLec2lZ";
+
+    private JwtSigningKeys create(String algorithm) {
+        JwtSigningKeys jwtSigningKeys = new JwtSigningKeys();
+        ReflectionTestUtils.setField(jwtSigningKeys, "signerKey", SIGNER_KEY);
+        ReflectionTestUtils.setField(jwtSigningKeys, "algorithm", algorithm);
+        ReflectionTestUtils.invokeMethod(jwtSigningKeys, "init");
+        return jwtSigningKeys;
+    }
+
+    private SignedJWT sign(JWSHeader header, JWSSigner signer) throws JOSEException {
+        SignedJWT signedJWT = new SignedJWT(header, new JWTClaimsSet.Builder().subject("john").build());
+        signedJWT.sign(signer);
+        return signedJWT;
+    }
+
+    @Test
+    public void rs256_signedToken_verifiesWithKid() throws Exception {
+        JwtSigningKeys jwtSigningKeys = create("RS256");
+
+        SignedJWT signedJWT = sign(jwtSigningKeys.newHeader(), jwtSigningKeys.signer());
+
+        assertNotNull(signedJWT.getHeader().getKeyID());
+        assertTrue(SignedJWT.parse(signedJWT.serialize()).verify(jwtSigningKeys.verifierFor(signedJWT.getHeader())));
+    }
+
+    @Test
+    public void es256_jwkSet_exposesPublicKeyOnly() {
+        JwtSigningKeys jwtSigningKeys = create("ES256");
+
+        var keys = jwtSigningKeys.publicJwkSet().getKeys();
+
+        assertEquals(1, keys.size());
+        assertFalse(keys.getFirst().isPrivate());
+        assertEquals(jwtSigningKeys.newHeader().getKeyID(), keys.getFirst().getKeyID());
+    }
+
+    @Test
+    public void rs256_hmacSignedToken_rejected() throws JOSEException {
+        JwtSigningKeys jwtSigningKeys = create("RS256");
+
+        SignedJWT forged = sign(new JWSHeader(JWSAlgorithm.HS512), new MACSigner(SIGNER_KEY.getBytes()));
+
+        assertThrows(AppException.class, () -> jwtSigningKeys.verifierFor(forged.getHeader()));
+    }
+
+    @Test
+    public void hs512_jwkSet_empty() {
+        assertTrue(create("HS512").publicJwkSet().getKeys().isEmpty());
+    }
+}
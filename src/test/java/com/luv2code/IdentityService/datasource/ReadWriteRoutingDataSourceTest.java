@@ -0,0 +1,162 @@
+package com.luv2code.IdentityService.datasource;
+
+import com.luv2code.IdentityService.configuration.ReadReplicaDataSourceConfig;
+import com.luv2code.IdentityService.entity.InvalidatedToken;
+import com.luv2code.IdentityService.entity.UserImportJob;
+import com.luv2code.IdentityService.entity.UserRevocationEpoch;
+import com.luv2code.IdentityService.enums.ImportJobStatus;
+import com.luv2code.IdentityService.repository.InvalidatedTokenRepository;
+import com.luv2code.IdentityService.repository.UserImportJobRepository;
+import com.luv2code.IdentityService.repository.UserRepository;
+import com.luv2code.IdentityService.repository.UserRevocationEpochRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A primary and two replicas as separate in-memory databases. The replicas never receive the
+ * primary's writes, which makes replica lag visible.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routingprimary;MODE=MySQL;NON_KEYWORDS=USER",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "datasource.read-replicas.enabled=true",
+        "datasource.read-replicas.replicas[0].url=" + ReadWriteRoutingDataSourceTest.REPLICA_0,
+        "datasource.read-replicas.replicas[0].username=sa",
+        "datasource.read-replicas.replicas[0].password=",
+        "datasource.read-replicas.replicas[1].url=" + ReadWriteRoutingDataSourceTest.REPLICA_1,
+        "datasource.read-replicas.replicas[1].username=sa",
+        "datasource.read-replicas.replicas[1].password="
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ReadReplicaDataSourceConfig.class, ReadYourWrites.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class ReadWriteRoutingDataSourceTest {
+
+    static final String REPLICA_0 = "jdbc:h2:mem:routingreplica0;MODE=MySQL;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1";
+    static final String REPLICA_1 = "jdbc:h2:mem:routingreplica1;MODE=MySQL;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private InvalidatedTokenRepository invalidatedTokenRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserRevocationEpochRepository userRevocationEpochRepository;
+
+    @Autowired
+    private UserImportJobRepository userImportJobRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ReadYourWrites readYourWrites;
+
+    private JdbcTemplate replica0;
+
+    @BeforeEach
+    public void setup() {
+        replica0 = replica(REPLICA_0);
+        var replica1 = replica(REPLICA_1);
+        for (JdbcTemplate replica : List.of(replica0, replica1)) {
+            replica.execute("create table if not exists invalidated_token "
+                    + "(id varchar(255) not null primary key, expiry_time timestamp(6), revoked_at timestamp(6))");
+            replica.execute("create table if not exists user (id uuid not null primary key, username varchar(255), "
+                    + "password varchar(255), firstname varchar(255), lastname varchar(255), dob date)");
+            replica.execute("create table if not exists role "
+                    + "(name varchar(255) not null primary key, description varchar(255))");
+            replica.execute("create table if not exists user_roles "
+                    + "(user_id uuid not null, roles_name varchar(255) not null, primary key (user_id, roles_name))");
+            replica.execute("delete from invalidated_token");
+            replica.execute("delete from user_roles");
+            replica.execute("delete from user");
+        }
+
+        invalidatedTokenRepository.deleteAll();
+        invalidatedTokenRepository.save(InvalidatedToken.builder().id("revoked").expiryTime(new Date()).build());
+    }
+
+    private static JdbcTemplate replica(String url) {
+        return new JdbcTemplate(new DriverManagerDataSource(url, "sa", ""));
+    }
+
+    @Test
+    public void readOnlyRepositoryCall_roundRobinOverReplicas() {
+        replica0.update("insert into invalidated_token (id) values ('revoked')");
+
+        // SimpleJpaRepository reads are read-only transactions: one replica has the row, the other does not
+        var seen = List.of(invalidatedTokenRepository.existsById("revoked"),
+                invalidatedTokenRepository.existsById("revoked"));
+
+        assertTrue(seen.contains(true));
+        assertTrue(seen.contains(false));
+    }
+
+    @Test
+    public void repositoryQueryMethod_roundRobinOverReplicas() {
+        replica0.update("insert into user (id, username) values (?, 'replica-only')", UUID.randomUUID());
+
+        // declared on the interface, read-only through UserRepository's @Transactional
+        var seen = List.of(userRepository.findWithRolesByUsername("replica-only").isPresent(),
+                userRepository.findWithRolesByUsername("replica-only").isPresent());
+
+        assertTrue(seen.contains(true));
+        assertTrue(seen.contains(false));
+    }
+
+    @Test
+    public void primaryOnlyRepositories_inheritedReadsOnPrimary() {
+        // the replicas have neither table, a read routed there would fail
+        userRevocationEpochRepository.save(UserRevocationEpoch.builder().username("john").notBefore(Instant.now()).build());
+        var job = userImportJobRepository.save(UserImportJob.builder()
+                .fileName("users.ndjson").status(ImportJobStatus.QUEUED).build());
+
+        for (int i = 0; i < 2; i++) {
+            assertTrue(userRevocationEpochRepository.findById("john").isPresent());
+            assertEquals(1, userRevocationEpochRepository.findAll().size());
+            assertTrue(userImportJobRepository.findById(job.getId()).isPresent());
+        }
+
+        userRevocationEpochRepository.deleteAll();
+        userImportJobRepository.deleteAll();
+    }
+
+    @Test
+    public void readWriteTransaction_onPrimary() {
+        var readWrite = new TransactionTemplate(transactionManager);
+
+        Boolean revoked = readWrite.execute(status -> invalidatedTokenRepository.existsById("revoked"));
+
+        assertEquals(Boolean.TRUE, revoked);
+    }
+
+    @Test
+    public void recentWrite_pinsReadsOfThatKeyToPrimary() {
+        readYourWrites.recordWrite(ReadYourWrites.Kind.TOKEN, "revoked");
+
+        for (int i = 0; i < 2; i++) {
+            assertTrue(readYourWrites.read(ReadYourWrites.Kind.TOKEN, "revoked",
+                    () -> invalidatedTokenRepository.existsById("revoked")));
+            assertFalse(readYourWrites.read(ReadYourWrites.Kind.TOKEN, "other",
+                    () -> invalidatedTokenRepository.existsById("revoked")));
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.luv2code.IdentityService.identifier;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UuidV7Test {
+
+    @Test
+    public void randomUuid_versionVariantAndTimestamp() {
+        long before = System.currentTimeMillis();
+        UUID uuid = UuidV7.randomUuid();
+
+        assertEquals(7, uuid.version());
+        assertEquals(2, uuid.variant());
+        assertTrue(uuid.getMostSignificantBits() >>> 16 >= before);
+    }
+
+    @Test
+    public void randomUuid_bytesStrictlyIncreasing() {
+        // well past the 4096 ids a single millisecond's counter can hold
+        byte[] previous = UuidV7.toBytes(UuidV7.randomUuid());
+        for (int i = 0; i < 20_000; i++) {
+            byte[] next = UuidV7.toBytes(UuidV7.randomUuid());
+            assertTrue(Arrays.compareUnsigned(previous, next) < 0);
+            previous = next;
+        }
+    }
+
+    @Test
+    public void toBytes_roundTripsThroughStringForm() {
+        UUID uuid = UuidV7.randomUuid();
+
+        byte[] bytes = UuidV7.toBytes(uuid);
+
+        assertEquals(uuid.toString().replace("-", ""), HexFormat.of().formatHex(bytes));
+    }
+}
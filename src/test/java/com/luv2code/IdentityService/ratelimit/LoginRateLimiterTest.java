@@ -0,0 +1,155 @@
+package com.luv2code.IdentityService.ratelimit;
+
+import com.luv2code.IdentityService.exception.AppException;
+import com.luv2code.IdentityService.exception.ErrorCode;
+import io.micrometer.core.instrument.MockClock;
+import io.micrometer.core.instrument.simple.SimpleConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LoginRateLimiterTest {
+
+    private MockClock clock;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private LoginRateLimiter limiter;
+
+    @BeforeEach
+    public void setup() {
+        clock = new MockClock();
+        meterRegistry = new SimpleMeterRegistry(SimpleConfig.DEFAULT, clock);
+        // 3 per username, refilling one every 10s; 5 per IP, one every second
+        limiter = new LoginRateLimiter(meterRegistry, true, 3, Duration.ofSeconds(10), 5, Duration.ofSeconds(1), 4);
+    }
+
+    private boolean attempt(String username, String ip) {
+        try {
+            limiter.acquire(username, ip);
+            return true;
+        } catch (AppException e) {
+            assertEquals(ErrorCode.TOO_MANY_LOGIN_ATTEMPTS, e.getErrorCode());
+            return false;
+        }
+    }
+
+    private double rejections(String key) {
+        return meterRegistry.get("auth.ratelimit.rejections").tag("key", key).counter().count();
+    }
+
+    private double buckets(String key) {
+        return meterRegistry.get("auth.ratelimit.buckets").tag("key", key).gauge().value();
+    }
+
+    @Test
+    public void acquire_usernameBurstExhausted_rejectedUntilRefill() {
+        assertTrue(attempt("john", "10.0.0.1"));
+        assertTrue(attempt("john", "10.0.0.2"));
+        assertTrue(attempt("JOHN ", "10.0.0.3"));
+        assertFalse(attempt("john", "10.0.0.4"));
+        assertEquals(1, rejections("username"));
+
+        clock.add(Duration.ofSeconds(10));
+
+        assertTrue(attempt("john", "10.0.0.4"));
+        assertFalse(attempt("john", "10.0.0.4"));
+    }
+
+    @Test
+    public void acquire_ipBurstExhausted_rejectedAcrossUsernames() {
+        for (int i = 0; i < 5; i++)
+            assertTrue(attempt("user" + i, "10.0.0.1"));
+
+        assertFalse(attempt("another", "10.0.0.1"));
+        assertEquals(1, rejections("ip"));
+        assertTrue(attempt("another", "10.0.0.2"));
+    }
+
+    @Test
+    public void sweep_dropsRefilledBuckets() {
+        attempt("john", "10.0.0.1");
+        attempt("jane", "10.0.0.1");
+        assertEquals(2, buckets("username"));
+
+        clock.add(Duration.ofSeconds(10));
+        attempt("jane", "10.0.0.1");
+        limiter.sweep();
+
+        assertEquals(1, buckets("username"));
+        assertEquals(1, buckets("ip"));
+    }
+
+    @Test
+    public void acquire_tableFull_newKeysShareOverflowBucket() {
+        for (int i = 0; i < 4; i++)
+            attempt("user" + i, "10.0.0." + i);
+
+        // the sprayed usernames draw on one bucket of 3, the addresses on one of 5
+        for (int i = 0; i < 3; i++)
+            assertTrue(attempt("sprayed" + i, "10.0.1." + i));
+        assertFalse(attempt("sprayed3", "10.0.1.3"));
+        // tracked usernames keep their own bucket
+        assertTrue(attempt("user0", "10.0.1.4"));
+        assertFalse(attempt("user1", "10.0.1.5"));
+
+        assertEquals(4, buckets("username"));
+        assertEquals(4, buckets("ip"));
+        assertEquals(1, rejections("username"));
+        assertEquals(1, rejections("ip"));
+        assertEquals(4, meterRegistry.get("auth.ratelimit.overflow").tag("key", "username").counter().count());
+        assertEquals(6, meterRegistry.get("auth.ratelimit.overflow").tag("key", "ip").counter().count());
+    }
+
+    @Test
+    public void acquire_disabled_neverRejects() {
+        var disabled = new LoginRateLimiter(meterRegistry, false, 1, Duration.ofHours(1), 1, Duration.ofHours(1), 4);
+
+        for (int i = 0; i < 10; i++)
+            disabled.acquire("john", "10.0.0.1");
+    }
+
+    @Test
+    public void acquire_concurrentAttempts_exactlyCapacityAllowed() throws Exception {
+        var shared = new LoginRateLimiter(new SimpleMeterRegistry(SimpleConfig.DEFAULT, clock), true,
+                50, Duration.ofHours(1), 10_000, Duration.ofHours(1), 4);
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        var start = new CountDownLatch(1);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++)
+                results.add(executor.submit(() -> {
+                    start.await();
+                    int allowed = 0;
+                    for (int i = 0; i < 100; i++) {
+                        try {
+                            shared.acquire("john", "10.0.0.1");
+                            allowed++;
+                        } catch (AppException ignored) {
+                        }
+                    }
+                    return allowed;
+                }));
+            start.countDown();
+
+            int allowed = 0;
+            for (var result : results)
+                allowed += result.get(10, TimeUnit.SECONDS);
+            assertEquals(50, allowed);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
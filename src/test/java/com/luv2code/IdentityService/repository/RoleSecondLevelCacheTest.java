@@ -0,0 +1,139 @@
+package com.luv2code.IdentityService.repository;
+
+import com.luv2code.IdentityService.cache.RoleScopeCache;
+import com.luv2code.IdentityService.configuration.SecondLevelCacheConfig;
+import com.luv2code.IdentityService.dto.request.RoleRequest;
+import com.luv2code.IdentityService.entity.Permission;
+import com.luv2code.IdentityService.entity.Role;
+import com.luv2code.IdentityService.mapper.PermissionMapperImpl;
+import com.luv2code.IdentityService.mapper.RoleMapperImpl;
+import com.luv2code.IdentityService.service.PermissionService;
+import com.luv2code.IdentityService.service.RoleService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Each step runs in its own transaction, as requests do, so reads are served by the second-level
+ * cache rather than the persistence context.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:entitycache;MODE=MySQL;NON_KEYWORDS=USER",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(SecondLevelCacheConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class RoleSecondLevelCacheTest {
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private PermissionRepository permissionRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transaction;
+
+    private Statistics statistics;
+
+    private RoleService roleService;
+
+    private PermissionService permissionService;
+
+    @BeforeEach
+    public void initData() {
+        transaction = new TransactionTemplate(transactionManager);
+        var roleScopeCache = new RoleScopeCache(Duration.ofMinutes(5));
+        roleService = new RoleService(roleRepository, permissionRepository, new RoleMapperImpl(), roleScopeCache);
+        permissionService = new PermissionService(permissionRepository, new PermissionMapperImpl(), roleScopeCache);
+
+        roleRepository.deleteAll();
+        permissionRepository.deleteAll();
+        entityManagerFactory.getCache().evictAll();
+
+        var read = permissionRepository.save(Permission.builder().name("READ_DATA").build());
+        var write = permissionRepository.save(Permission.builder().name("WRITE_DATA").build());
+        permissionRepository.save(Permission.builder().name("DELETE_DATA").build());
+        roleRepository.save(Role.builder().name("USER").permissions(Set.of(read)).build());
+        roleRepository.save(Role.builder().name("EDITOR").permissions(Set.of(read, write)).build());
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    public void findById_secondReadIsServedFromCache() {
+        assertEquals(Set.of("READ_DATA", "WRITE_DATA"), permissionNames("EDITOR"));
+        long statements = statistics.getPrepareStatementCount();
+
+        assertEquals(Set.of("READ_DATA", "WRITE_DATA"), permissionNames("EDITOR"));
+
+        assertEquals(statements, statistics.getPrepareStatementCount());
+        assertTrue(statistics.getDomainDataRegionStatistics(SecondLevelCacheConfig.ROLE_REGION).getHitCount() > 0);
+        assertTrue(statistics.getDomainDataRegionStatistics(SecondLevelCacheConfig.ROLE_PERMISSIONS_REGION)
+                .getHitCount() > 0);
+    }
+
+    @Test
+    public void findAllById_cachedRolesNeedNoQuery() {
+        transaction.executeWithoutResult(status -> roleRepository.findAllById(List.of("USER", "EDITOR")));
+        long statements = statistics.getPrepareStatementCount();
+
+        var roles = transaction.execute(status -> roleRepository.findAllById(List.of("USER", "EDITOR", "MISSING")));
+
+        assertEquals(Set.of("USER", "EDITOR"), roles.stream().map(Role::getName).collect(Collectors.toSet()));
+        assertEquals(statements + 1, statistics.getPrepareStatementCount(), "only MISSING goes to the database");
+    }
+
+    @Test
+    public void roleServiceCreate_replacesCachedPermissions() {
+        assertEquals(Set.of("READ_DATA"), permissionNames("USER"));
+
+        roleService.create(RoleRequest.builder()
+                .name("USER")
+                .permissions(Set.of("READ_DATA", "DELETE_DATA"))
+                .build());
+
+        assertEquals(Set.of("READ_DATA", "DELETE_DATA"), permissionNames("USER"));
+    }
+
+    @Test
+    public void permissionServiceDelete_evictsPermission() {
+        transaction.executeWithoutResult(status -> permissionRepository.findById("DELETE_DATA").orElseThrow());
+
+        permissionService.delete("DELETE_DATA");
+
+        assertTrue(transaction.execute(status -> permissionRepository.findById("DELETE_DATA")).isEmpty());
+    }
+
+    private Set<String> permissionNames(String roleName) {
+        return transaction.execute(status -> roleRepository.findById(roleName).orElseThrow()
+                .getPermissions().stream()
+                .map(Permission::getName)
+                .collect(Collectors.toSet()));
+    }
+}
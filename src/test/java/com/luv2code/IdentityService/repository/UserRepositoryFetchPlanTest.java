@@ -0,0 +1,133 @@
+package com.luv2code.IdentityService.repository;
+
+import com.luv2code.IdentityService.entity.Permission;
+import com.luv2code.IdentityService.entity.Role;
+import com.luv2code.IdentityService.entity.User;
+import com.luv2code.IdentityService.mapper.UserMapper;
+import com.luv2code.IdentityService.mapper.UserMapperImpl;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Asserts the exact number of SQL statements each endpoint's user loading issues.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:fetchplan;MODE=MySQL;NON_KEYWORDS=USER",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class UserRepositoryFetchPlanTest {
+
+    private static final int USERS = 5;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private PermissionRepository permissionRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final UserMapper userMapper = new UserMapperImpl();
+
+    private Statistics statistics;
+
+    private UUID userId;
+
+    @BeforeEach
+    public void initData() {
+        var read = permissionRepository.save(Permission.builder().name("READ_DATA").build());
+        var write = permissionRepository.save(Permission.builder().name("WRITE_DATA").build());
+        var approve = permissionRepository.save(Permission.builder().name("APPROVE_POST").build());
+
+        var userRole = roleRepository.save(Role.builder().name("USER").permissions(Set.of(read)).build());
+        var adminRole = roleRepository.save(Role.builder().name("ADMIN").permissions(Set.of(read, write, approve)).build());
+
+        for (int i = 0; i < USERS; i++) {
+            var user = userRepository.save(User.builder()
+                    .username("user" + i)
+                    .password("password")
+                    .roles(new HashSet<>(Set.of(userRole, adminRole)))
+                    .build());
+            userId = user.getId();
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    public void login_loadsUserAndRolesInOneStatement() {
+        var user = userRepository.findWithRolesByUsername("user0").orElseThrow();
+        user.getRoles().forEach(Role::getName);
+
+        assertEquals(2, user.getRoles().size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void getMyInfo_loadsUserRolesAndPermissionsInOneStatement() {
+        var response = userMapper.toUserResponse(userRepository.findByUsername("user0").orElseThrow());
+
+        assertEquals(2, response.getRoles().size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void getUser_loadsUserRolesAndPermissionsInOneStatement() {
+        var response = userMapper.toUserResponse(userRepository.findById(userId).orElseThrow());
+
+        assertEquals(2, response.getRoles().size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void listUsers_batchFetchesRolesAndPermissions() {
+        var responses = userMapper.toListUserResponse(userRepository.findAllByOrderByIdAsc(Limit.of(USERS)));
+
+        assertEquals(USERS, responses.size());
+        // users, then one batch for all user_roles, then one batch for all role_permissions
+        assertEquals(3, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void listUsers_keysetPagesCoverEveryUserOnce() {
+        List<UUID> seen = new ArrayList<>();
+
+        var page = userRepository.findAllByOrderByIdAsc(Limit.of(2));
+        while (!page.isEmpty()) {
+            page.forEach(user -> seen.add(user.getId()));
+            page = userRepository.findByIdGreaterThanOrderByIdAsc(page.getLast().getId(), Limit.of(2));
+        }
+
+        assertEquals(USERS, seen.size());
+        assertEquals(seen.stream().sorted().toList(), seen);
+    }
+}
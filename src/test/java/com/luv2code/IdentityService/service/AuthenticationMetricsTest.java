@@ -0,0 +1,105 @@
+package com.luv2code.IdentityService.service;
+
+import com.luv2code.IdentityService.dto.request.AuthenticationRequest;
+import com.luv2code.IdentityService.dto.request.LogoutRequest;
+import com.luv2code.IdentityService.entity.Role;
+import com.luv2code.IdentityService.entity.User;
+import com.luv2code.IdentityService.exception.AppException;
+import com.nimbusds.jose.JOSEException;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.text.ParseException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+public class AuthenticationMetricsTest {
+
+    private AuthenticationServiceFixture fixture;
+
+    @BeforeEach
+    public void setup() {
+        fixture = new AuthenticationServiceFixture();
+
+        var user = User.builder()
+                .username("john")
+                .password(new BCryptPasswordEncoder(4).encode("12345678"))
+                .roles(Set.of(Role.builder().name("USER").permissions(Set.of()).build()))
+                .build();
+        when(fixture.userRepository.findWithRolesByUsername("john")).thenReturn(Optional.of(user));
+        when(fixture.userRepository.findWithRolesByUsername("nobody")).thenReturn(Optional.empty());
+        when(fixture.invalidatedTokenRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    public void authenticate_success_recordsEveryPhase() {
+        fixture.authenticationService.authenticate(new AuthenticationRequest("john", "12345678"));
+
+        for (String phase : new String[]{"user_lookup", "password_check", "scope_build", "token_sign"})
+            assertEquals(1, phaseCount(phase), phase);
+        assertEquals(1, operationCount("authenticate", "success"));
+        assertEquals(0, operationCount("authenticate", "failure"));
+    }
+
+    @Test
+    public void authenticate_failures_countedByReason() {
+        assertThrows(AppException.class,
+                () -> fixture.authenticationService.authenticate(new AuthenticationRequest("john", "wrong-password")));
+        assertThrows(AppException.class,
+                () -> fixture.authenticationService.authenticate(new AuthenticationRequest("nobody", "12345678")));
+
+        assertEquals(1, failureCount("bad_password"));
+        assertEquals(1, failureCount("unknown_user"));
+        assertEquals(2, operationCount("authenticate", "failure"));
+        assertEquals(0, phaseCount("token_sign"));
+    }
+
+    @Test
+    public void verifyToken_secondCallIsCacheHit() throws JOSEException, ParseException {
+        String token = fixture.createToken("john", Date.from(Instant.now().plus(1, ChronoUnit.HOURS)));
+
+        fixture.authenticationService.verifyToken(token, false);
+        fixture.authenticationService.verifyToken(token, false);
+
+        assertEquals(1, registry().get("auth.verify.cache").tag("result", "miss").counter().count());
+        assertEquals(1, registry().get("auth.verify.cache").tag("result", "hit").counter().count());
+        assertEquals(1, phaseCount("signature_verify"));
+        assertEquals(2, operationCount("verify", "success"));
+    }
+
+    @Test
+    public void logout_recordsRevocationPersist() throws JOSEException, ParseException {
+        String token = fixture.createToken("john", Date.from(Instant.now().plus(1, ChronoUnit.HOURS)));
+
+        fixture.authenticationService.logout(new LogoutRequest(token));
+
+        assertEquals(1, phaseCount("revocation_persist"));
+        assertEquals(1, operationCount("logout", "success"));
+    }
+
+    private MeterRegistry registry() {
+        return fixture.meterRegistry;
+    }
+
+    private long phaseCount(String phase) {
+        return registry().get("auth.phase.duration").tag("phase", phase).timer().count();
+    }
+
+    private long operationCount(String operation, String outcome) {
+        return registry().get("auth.operation.duration").tag("operation", operation).tag("outcome", outcome)
+                .timer().count();
+    }
+
+    private double failureCount(String reason) {
+        return registry().get("auth.authenticate.failures").tag("reason", reason).counter().count();
+    }
+}
@@ -0,0 +1,73 @@
+package com.luv2code.IdentityService.service;
+
+import com.luv2code.IdentityService.dto.request.BatchIntrospectRequest;
+import com.luv2code.IdentityService.dto.response.IntrospectResponse;
+import com.luv2code.IdentityService.exception.AppException;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jwt.SignedJWT;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.text.ParseException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class AuthenticationServiceBatchIntrospectTest {
+
+    private AuthenticationServiceFixture fixture;
+
+    @BeforeEach
+    public void setup() {
+        fixture = new AuthenticationServiceFixture();
+        when(fixture.invalidatedTokenRepository.findIdsByIdIn(any())).thenReturn(Set.of());
+    }
+
+    private String validToken() throws JOSEException {
+        return fixture.createToken("john", Date.from(Instant.now().plus(1, ChronoUnit.HOURS)));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void introspect_mixedTokens_resultsInRequestOrder() throws JOSEException {
+        String valid = validToken();
+        String expired = fixture.createToken("john", Date.from(Instant.now().minus(1, ChronoUnit.HOURS)));
+
+        List<IntrospectResponse> responses = fixture.authenticationService.introspect(
+                new BatchIntrospectRequest(Arrays.asList(valid, "invalidToken", expired, null, valid)));
+
+        assertEquals(List.of(true, false, false, false, true),
+                responses.stream().map(IntrospectResponse::isValid).toList());
+
+        ArgumentCaptor<Collection<String>> jtis = ArgumentCaptor.forClass(Collection.class);
+        verify(fixture.invalidatedTokenRepository, times(1)).findIdsByIdIn(jtis.capture());
+        assertEquals(1, jtis.getValue().size());
+        verify(fixture.invalidatedTokenRepository, never()).existsById(any());
+    }
+
+    @Test
+    public void introspect_revokedToken_invalid() throws JOSEException, ParseException {
+        String token = validToken();
+        String jti = SignedJWT.parse(token).getJWTClaimsSet().getJWTID();
+        when(fixture.invalidatedTokenRepository.findIdsByIdIn(any())).thenReturn(Set.of(jti));
+
+        List<IntrospectResponse> responses = fixture.authenticationService.introspect(
+                new BatchIntrospectRequest(List.of(token, validToken())));
+
+        assertFalse(responses.get(0).isValid());
+        assertTrue(responses.get(1).isValid());
+    }
+
+    @Test
+    public void introspect_tooManyTokens_throwsException() {
+        List<String> tokens = Collections.nCopies(501, "token");
+
+        assertThrows(AppException.class,
+                () -> fixture.authenticationService.introspect(new BatchIntrospectRequest(tokens)));
+    }
+}
@@ -0,0 +1,128 @@
+package com.luv2code.IdentityService.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.luv2code.IdentityService.audit.AuditLog;
+import com.luv2code.IdentityService.audit.AuditProperties;
+import com.luv2code.IdentityService.cache.RevokedTokenFilter;
+import com.luv2code.IdentityService.cache.RoleScopeCache;
+import com.luv2code.IdentityService.cache.RoleScopeExpander;
+import com.luv2code.IdentityService.cache.TokenVerificationCache;
+import com.luv2code.IdentityService.cache.UserRevocationEpochs;
+import com.luv2code.IdentityService.configuration.JwtSigningKeys;
+import com.luv2code.IdentityService.datasource.ReadYourWrites;
+import com.luv2code.IdentityService.repository.InvalidatedTokenRepository;
+import com.luv2code.IdentityService.repository.RoleRepository;
+import com.luv2code.IdentityService.repository.UserRepository;
+import com.luv2code.IdentityService.repository.UserRevocationEpochRepository;
+import com.nimbusds.jose.*;
+import com.nimbusds.jose.crypto.MACSigner;
+import com.nimbusds.jwt.JWTClaimsSet;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.mockito.Mockito;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * Wires a real AuthenticationService (HS512, in-memory caches) around mocked repositories,
+ * for tests that do not need a Spring context or a database.
+ */
+public class AuthenticationServiceFixture {
+
+    public static final String SIGNER_KEY = "clA8K37zrOY5EoPGI0TLUCJZmCik3ZBpgju5SZHny3nR/TcZYRz4lh3FIkLec2lZ";
+
+    public final UserRepository userRepository = Mockito.mock(UserRepository.class);
+
+    public final InvalidatedTokenRepository invalidatedTokenRepository = Mockito.mock(InvalidatedTokenRepository.class);
+
+    public final RoleRepository roleRepository = Mockito.mock(RoleRepository.class);
+
+    public final UserRevocationEpochRepository userRevocationEpochRepository =
+            Mockito.mock(UserRevocationEpochRepository.class);
+
+    public final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    public final TokenVerificationCache tokenVerificationCache = new TokenVerificationCache();
+
+    public final ReadYourWrites readYourWrites = new ReadYourWrites(true, Duration.ofSeconds(5), 1000);
+
+    public final RevokedTokenFilter revokedTokenFilter;
+
+    public final UserRevocationEpochs userRevocationEpochs;
+
+    public final JwtSigningKeys jwtSigningKeys = new JwtSigningKeys();
+
+    public final PasswordHashingService passwordHashingService;
+
+    public final RoleScopeCache roleScopeCache = new RoleScopeCache(Duration.ofMinutes(5));
+
+    public final RoleScopeExpander roleScopeExpander;
+
+    public final AuditLog auditLog;
+
+    public final AuthenticationService authenticationService;
+
+    public AuthenticationServiceFixture() {
+        this(null);
+    }
+
+    /**
+     * @param auditProperties null for a disabled audit log
+     */
+    public AuthenticationServiceFixture(AuditProperties auditProperties) {
+        ReflectionTestUtils.setField(tokenVerificationCache, "maximumSize", 100L);
+        ReflectionTestUtils.setField(tokenVerificationCache, "negativeTtl", 30L);
+        ReflectionTestUtils.invokeMethod(tokenVerificationCache, "init");
+
+        ReflectionTestUtils.setField(jwtSigningKeys, "signerKey", SIGNER_KEY);
+        ReflectionTestUtils.setField(jwtSigningKeys, "algorithm", "HS512");
+        ReflectionTestUtils.invokeMethod(jwtSigningKeys, "init");
+
+        revokedTokenFilter = new RevokedTokenFilter(invalidatedTokenRepository,
+                Mockito.mock(InvalidatedTokenPurgeService.class), readYourWrites,
+                Mockito.mock(PlatformTransactionManager.class), meterRegistry);
+
+        userRevocationEpochs = new UserRevocationEpochs(userRevocationEpochRepository, meterRegistry,
+                Duration.ofMinutes(1));
+        userRevocationEpochs.load();
+
+        passwordHashingService = new PasswordHashingService(new BCryptPasswordEncoder(4), meterRegistry,
+                2, 16, Duration.ofSeconds(10));
+
+        roleScopeExpander = new RoleScopeExpander(roleScopeCache, roleRepository,
+                Mockito.mock(PlatformTransactionManager.class));
+
+        if (auditProperties == null) {
+            auditProperties = new AuditProperties();
+            auditProperties.setEnabled(false);
+        }
+        auditLog = new AuditLog(auditProperties, new ObjectMapper().findAndRegisterModules(), meterRegistry);
+
+        authenticationService = new AuthenticationService(userRepository, invalidatedTokenRepository,
+                tokenVerificationCache, revokedTokenFilter, userRevocationEpochs, jwtSigningKeys,
+                passwordHashingService, roleScopeCache, readYourWrites, new AuthenticationMetrics(meterRegistry),
+                auditLog);
+        ReflectionTestUtils.setField(authenticationService, "VALID_DURATION", 3600L);
+        ReflectionTestUtils.setField(authenticationService, "REFRESHABLE_DURATION", 3600L);
+        ReflectionTestUtils.setField(authenticationService, "MAX_BATCH_SIZE", 500);
+    }
+
+    public String createToken(String username, Date expirationTime) throws JOSEException {
+        JWTClaimsSet jwtClaimsSet = new JWTClaimsSet.Builder()
+                .subject(username)
+                .issuer("devteria.com")
+                .issueTime(new Date())
+                .expirationTime(expirationTime)
+                .jwtID(UUID.randomUUID().toString())
+                .claim("scope", "ROLE_USER")
+                .build();
+
+        JWSObject jwsObject = new JWSObject(new JWSHeader(JWSAlgorithm.HS512), new Payload(jwtClaimsSet.toJSONObject()));
+        jwsObject.sign(new MACSigner(SIGNER_KEY.getBytes()));
+        return jwsObject.serialize();
+    }
+}
@@ -89,7 +89,7 @@ public class AuthenticationServiceTest {
     @Test
     public void authenticate_validCredentials_success() {
         AuthenticationRequest request = new AuthenticationRequest("john", "password");
-        when(userRepository.findByUsername(request.getUsername())).thenReturn(Optional.of(user));
+        when(userRepository.findWithRolesByUsername(request.getUsername())).thenReturn(Optional.of(user));
 
         AuthenticationResponse response = authenticationService.authenticate(request);
 
@@ -101,7 +101,7 @@ public class AuthenticationServiceTest {
     @Test
     public void authenticate_invalidPassword_throwsException() {
         AuthenticationRequest request = new AuthenticationRequest("john", "wrongpassword");
-        when(userRepository.findByUsername(request.getUsername())).thenReturn(Optional.of(user));
+        when(userRepository.findWithRolesByUsername(request.getUsername())).thenReturn(Optional.of(user));
 
         assertThrows(AppException.class, () -> authenticationService.authenticate(request));
     }
@@ -137,7 +137,7 @@ public class AuthenticationServiceTest {
     @Test
     public void refreshToken_validToken_success() throws ParseException, JOSEException {
         RefreshRequest request = new RefreshRequest(token);
-        when(userRepository.findByUsername(user.getUsername())).thenReturn(Optional.of(user));
+        when(userRepository.findWithRolesByUsername(user.getUsername())).thenReturn(Optional.of(user));
         when(invalidatedTokenRepository.save(any(InvalidatedToken.class))).thenReturn(null);
 
         AuthenticationResponse response = authenticationService.refreshToken(request);
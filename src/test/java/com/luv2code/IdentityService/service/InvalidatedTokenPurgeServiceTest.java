@@ -0,0 +1,172 @@
+package com.luv2code.IdentityService.service;
+
+import com.luv2code.IdentityService.entity.InvalidatedToken;
+import com.luv2code.IdentityService.repository.InvalidatedTokenRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Batching and locking against a mocked connection; the DELETE itself against H2 in MySQL mode,
+ * with GET_LOCK and RELEASE_LOCK stubbed as aliases.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:purge;MODE=MySQL;NON_KEYWORDS=USER",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class InvalidatedTokenPurgeServiceTest {
+
+    private static final long VALID_DURATION = 3600;
+
+    private static final long REFRESHABLE_DURATION = 36000;
+
+    @Autowired
+    private InvalidatedTokenRepository invalidatedTokenRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    public void setup() {
+        jdbcTemplate.execute("CREATE ALIAS IF NOT EXISTS GET_LOCK FOR '"
+                + InvalidatedTokenPurgeServiceTest.class.getName() + ".getLock'");
+        jdbcTemplate.execute("CREATE ALIAS IF NOT EXISTS RELEASE_LOCK FOR '"
+                + InvalidatedTokenPurgeServiceTest.class.getName() + ".releaseLock'");
+        invalidatedTokenRepository.deleteAll();
+    }
+
+    public static int getLock(String name, int timeout) {
+        return 1;
+    }
+
+    public static int releaseLock(String name) {
+        return 1;
+    }
+
+    private static InvalidatedTokenPurgeService purgeService(JdbcTemplate jdbcTemplate, int batchSize) {
+        var purgeService = new InvalidatedTokenPurgeService(jdbcTemplate);
+        ReflectionTestUtils.setField(purgeService, "VALID_DURATION", VALID_DURATION);
+        ReflectionTestUtils.setField(purgeService, "REFRESHABLE_DURATION", REFRESHABLE_DURATION);
+        ReflectionTestUtils.setField(purgeService, "batchSize", batchSize);
+        ReflectionTestUtils.setField(purgeService, "batchPause", 0L);
+        return purgeService;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static JdbcTemplate mockJdbcTemplate(Connection connection) throws SQLException {
+        JdbcTemplate jdbcTemplate = Mockito.mock(JdbcTemplate.class);
+        when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenAnswer(invocation ->
+                invocation.<ConnectionCallback<Long>>getArgument(0).doInConnection(connection));
+        return jdbcTemplate;
+    }
+
+    // grants the lock if locked, hands out delete for the batched DELETE
+    private static Connection mockConnection(boolean locked, PreparedStatement delete) throws SQLException {
+        Connection connection = Mockito.mock(Connection.class);
+        ResultSet lockResult = Mockito.mock(ResultSet.class);
+        when(lockResult.next()).thenReturn(true);
+        when(lockResult.getInt(1)).thenReturn(locked ? 1 : 0);
+        PreparedStatement getLock = Mockito.mock(PreparedStatement.class);
+        when(getLock.executeQuery()).thenReturn(lockResult);
+        PreparedStatement releaseLock = Mockito.mock(PreparedStatement.class);
+        when(releaseLock.executeQuery()).thenReturn(Mockito.mock(ResultSet.class));
+
+        when(connection.prepareStatement("SELECT GET_LOCK(?, 0)")).thenReturn(getLock);
+        when(connection.prepareStatement("SELECT RELEASE_LOCK(?)")).thenReturn(releaseLock);
+        when(connection.prepareStatement(InvalidatedTokenPurgeService.DELETE_EXPIRED)).thenReturn(delete);
+        return connection;
+    }
+
+    @Test
+    public void purgeCutoff_refreshWindowBeyondExpiry() {
+        var purgeService = purgeService(jdbcTemplate, 10);
+
+        Duration grace = Duration.between(purgeService.purgeCutoff(), Instant.now());
+
+        assertEquals(REFRESHABLE_DURATION - VALID_DURATION, grace.toSeconds(), 1);
+    }
+
+    @Test
+    public void purgeCutoff_refreshWindowShorterThanValidity_now() {
+        var purgeService = purgeService(jdbcTemplate, 10);
+        ReflectionTestUtils.setField(purgeService, "REFRESHABLE_DURATION", VALID_DURATION / 2);
+
+        Duration grace = Duration.between(purgeService.purgeCutoff(), Instant.now());
+
+        assertEquals(0, grace.toSeconds(), 1);
+    }
+
+    @Test
+    public void purgeExpired_deletesUntilShortBatch() throws SQLException {
+        PreparedStatement delete = Mockito.mock(PreparedStatement.class);
+        when(delete.executeUpdate()).thenReturn(10, 10, 3);
+        Connection connection = mockConnection(true, delete);
+
+        purgeService(mockJdbcTemplate(connection), 10).purgeExpired();
+
+        verify(delete, times(3)).executeUpdate();
+        verify(connection).prepareStatement("SELECT RELEASE_LOCK(?)");
+    }
+
+    @Test
+    public void purgeExpired_lockHeldElsewhere_skipped() throws SQLException {
+        PreparedStatement delete = Mockito.mock(PreparedStatement.class);
+        Connection connection = mockConnection(false, delete);
+
+        purgeService(mockJdbcTemplate(connection), 10).purgeExpired();
+
+        verify(connection, never()).prepareStatement(InvalidatedTokenPurgeService.DELETE_EXPIRED);
+        verify(connection, never()).prepareStatement("SELECT RELEASE_LOCK(?)");
+    }
+
+    @Test
+    public void purgeExpired_keepsRowsInsideRefreshWindow() {
+        Instant now = Instant.now();
+        // expired beyond the refresh window
+        save("purged-1", now.minusSeconds(REFRESHABLE_DURATION));
+        save("purged-2", now.minusSeconds(REFRESHABLE_DURATION - VALID_DURATION + 60));
+        // expired, but still refreshable
+        save("refreshable", now.minusSeconds(60));
+        // not expired yet
+        save("valid", now.plusSeconds(VALID_DURATION));
+
+        purgeService(jdbcTemplate, 1).purgeExpired();
+
+        Set<String> remaining = invalidatedTokenRepository.findAll().stream()
+                .map(InvalidatedToken::getId)
+                .collect(Collectors.toSet());
+        assertEquals(Set.of("refreshable", "valid"), remaining);
+    }
+
+    private void save(String id, Instant expiryTime) {
+        invalidatedTokenRepository.save(InvalidatedToken.builder()
+                .id(id)
+                .expiryTime(Date.from(expiryTime))
+                .revokedAt(Instant.now())
+                .build());
+    }
+}
@@ -0,0 +1,133 @@
+package com.luv2code.IdentityService.service;
+
+import com.luv2code.IdentityService.exception.AppException;
+import com.luv2code.IdentityService.exception.ErrorCode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PasswordHashingServiceTest {
+
+    @Test
+    public void encodeAndMatches_success() {
+        var meterRegistry = new SimpleMeterRegistry();
+        var passwordHashingService = new PasswordHashingService(new BCryptPasswordEncoder(4), meterRegistry,
+                2, 4, Duration.ofSeconds(10));
+
+        String hash = passwordHashingService.encode("password");
+
+        assertTrue(passwordHashingService.matches("password", hash));
+        assertFalse(passwordHashingService.matches("wrongpassword", hash));
+        assertEquals(2, meterRegistry.get("password.hashing.duration").tag("operation", "matches").timer().count());
+    }
+
+    @Test
+    public void encode_queueFull_rejectedFast() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        PasswordEncoder blockingEncoder = new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return rawPassword.toString();
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return false;
+            }
+        };
+        var passwordHashingService = new PasswordHashingService(blockingEncoder, new SimpleMeterRegistry(),
+                1, 1, Duration.ofSeconds(10));
+
+        var running = CompletableFuture.supplyAsync(() -> passwordHashingService.encode("a"));
+        started.await();
+        var queued = CompletableFuture.supplyAsync(() -> passwordHashingService.encode("b"));
+        while (passwordHashingService.getQueueDepth() == 0)
+            Thread.onSpinWait();
+
+        AppException exception = assertThrows(AppException.class, () -> passwordHashingService.encode("c"));
+        assertEquals(ErrorCode.SERVICE_BUSY, exception.getErrorCode());
+
+        release.countDown();
+        assertEquals("a", running.get());
+        assertEquals("b", queued.get());
+    }
+
+    @Test
+    public void encodeAll_serviceBusy_cancelsSubmittedHashes() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        PasswordEncoder blockingEncoder = new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                }
+                return rawPassword.toString();
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return false;
+            }
+        };
+        var passwordHashingService = new PasswordHashingService(blockingEncoder, new SimpleMeterRegistry(),
+                2, 1, Duration.ofMillis(200));
+        var executor = (ThreadPoolExecutor) ReflectionTestUtils.getField(passwordHashingService, "executor");
+
+        // a login holds one thread; once the first hash runs on the other, a second login fills the queue
+        executor.submit(() -> release.await(5, TimeUnit.SECONDS));
+        List<String> passwords = new AbstractList<>() {
+            @Override
+            public String get(int index) {
+                if (index == 1) {
+                    try {
+                        started.await();
+                    } catch (InterruptedException e) {
+                        throw new IllegalStateException(e);
+                    }
+                    executor.submit(() -> release.await(5, TimeUnit.SECONDS));
+                }
+                return "password" + index;
+            }
+
+            @Override
+            public int size() {
+                return 2;
+            }
+        };
+
+        try {
+            AppException exception = assertThrows(AppException.class,
+                    () -> passwordHashingService.encodeAll(passwords));
+            assertEquals(ErrorCode.SERVICE_BUSY, exception.getErrorCode());
+            // the first hash was not left running for a result nobody reads
+            assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+            passwordHashingService.shutdown();
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.luv2code.IdentityService.service;
+
+import com.luv2code.IdentityService.cache.UserRevocationEpochs;
+import com.luv2code.IdentityService.dto.request.TokenRevocationRequest;
+import com.luv2code.IdentityService.entity.UserRevocationEpoch;
+import com.luv2code.IdentityService.exception.AppException;
+import com.luv2code.IdentityService.exception.ErrorCode;
+import com.luv2code.IdentityService.repository.UserRevocationEpochRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:revocationepoch;MODE=MySQL;NON_KEYWORDS=USER",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class TokenRevocationServiceTest {
+
+    @Autowired
+    private UserRevocationEpochRepository userRevocationEpochRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private UserRevocationEpochs userRevocationEpochs;
+
+    private TokenRevocationService tokenRevocationService;
+
+    // a token issued just before the revocations below, at most in the same second
+    private final Date issued = new Date();
+
+    @BeforeEach
+    public void setup() {
+        userRevocationEpochRepository.deleteAll();
+        userRevocationEpochs = newEpochs();
+        tokenRevocationService = new TokenRevocationService(userRevocationEpochs, jdbcTemplate, transactionManager,
+                3, 2);
+    }
+
+    private UserRevocationEpochs newEpochs() {
+        var epochs = new UserRevocationEpochs(userRevocationEpochRepository, new SimpleMeterRegistry(),
+                Duration.ofMinutes(1));
+        epochs.load();
+        return epochs;
+    }
+
+    @Test
+    public void revokeAllTokens_writesEpochPerUser() {
+        var response = tokenRevocationService.revokeAllTokens(
+                new TokenRevocationRequest(Arrays.asList("john", "jane", "john", "", null)));
+
+        assertEquals(2, response.getUsers());
+        assertEquals(2, userRevocationEpochRepository.count());
+        assertTrue(userRevocationEpochs.isRevoked("john", issued));
+        assertTrue(userRevocationEpochs.isRevoked("jane", issued));
+        assertFalse(userRevocationEpochs.isRevoked("bob", issued));
+        // another node loading the table sees the same epochs
+        assertTrue(newEpochs().isRevoked("jane", issued));
+    }
+
+    @Test
+    public void revokeAllTokens_neverMovesEpochBackwards() {
+        Instant future = Instant.now().plus(1, ChronoUnit.HOURS).truncatedTo(ChronoUnit.SECONDS);
+        userRevocationEpochRepository.save(UserRevocationEpoch.builder().username("john").notBefore(future).build());
+
+        tokenRevocationService.revokeAllTokens(new TokenRevocationRequest(List.of("john")));
+
+        assertEquals(future, userRevocationEpochRepository.findById("john").orElseThrow().getNotBefore());
+    }
+
+    @Test
+    public void refresh_picksUpEpochsWrittenElsewhere() {
+        var otherNode = new TokenRevocationService(newEpochs(), jdbcTemplate, transactionManager, 3, 2);
+        otherNode.revokeAllTokens(new TokenRevocationRequest(List.of("john")));
+        assertFalse(userRevocationEpochs.isRevoked("john", issued));
+
+        userRevocationEpochs.refresh();
+
+        assertTrue(userRevocationEpochs.isRevoked("john", issued));
+    }
+
+    @Test
+    public void revokeAllTokens_tooManyUsers_rejected() {
+        var exception = assertThrows(AppException.class, () -> tokenRevocationService.revokeAllTokens(
+                new TokenRevocationRequest(List.of("a", "b", "c", "d"))));
+
+        assertEquals(ErrorCode.BATCH_TOO_LARGE, exception.getErrorCode());
+        assertEquals(0, userRevocationEpochRepository.count());
+    }
+}
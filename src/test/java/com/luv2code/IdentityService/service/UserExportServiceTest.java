@@ -0,0 +1,87 @@
+package com.luv2code.IdentityService.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.luv2code.IdentityService.entity.Permission;
+import com.luv2code.IdentityService.entity.Role;
+import com.luv2code.IdentityService.entity.User;
+import com.luv2code.IdentityService.mapper.UserMapperImpl;
+import com.luv2code.IdentityService.repository.PermissionRepository;
+import com.luv2code.IdentityService.repository.RoleRepository;
+import com.luv2code.IdentityService.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:export;MODE=MySQL;NON_KEYWORDS=USER",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class UserExportServiceTest {
+
+    private static final int USERS = 5;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private PermissionRepository permissionRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private UserExportService userExportService;
+
+    @BeforeEach
+    public void initData() {
+        var read = permissionRepository.save(Permission.builder().name("READ_DATA").build());
+        var userRole = roleRepository.save(Role.builder().name("USER").permissions(Set.of(read)).build());
+
+        for (int i = 0; i < USERS; i++) {
+            userRepository.save(User.builder()
+                    .username("user" + i)
+                    .password("password")
+                    .roles(new HashSet<>(Set.of(userRole)))
+                    .build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        // chunk of 2 over 5 users also covers the trailing partial chunk
+        userExportService = new UserExportService(userRepository, new UserMapperImpl(), entityManager,
+                transactionManager, objectMapper, 2);
+    }
+
+    @Test
+    public void writeUsers_oneJsonObjectPerLine() throws Exception {
+        var out = new ByteArrayOutputStream();
+
+        userExportService.writeUsers(out);
+
+        var lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(USERS, lines.length);
+        for (int i = 0; i < USERS; i++) {
+            var user = objectMapper.readTree(lines[i]);
+            assertEquals("USER", user.get("roles").get(0).get("name").asText());
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package com.luv2code.IdentityService.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.luv2code.IdentityService.entity.Role;
+import com.luv2code.IdentityService.entity.UserImportJob;
+import com.luv2code.IdentityService.enums.ImportJobStatus;
+import com.luv2code.IdentityService.exception.ErrorCode;
+import com.luv2code.IdentityService.mapper.UserImportJobMapperImpl;
+import com.luv2code.IdentityService.repository.RoleRepository;
+import com.luv2code.IdentityService.repository.UserImportJobRepository;
+import com.luv2code.IdentityService.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs imports synchronously through {@code run} against H2, chunks of two rows.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:userimport;MODE=MySQL;NON_KEYWORDS=USER",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class UserImportServiceTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private UserImportJobRepository userImportJobRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @TempDir
+    Path importDir;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private PasswordHashingService passwordHashingService;
+
+    private UserImportService userImportService;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        jdbcTemplate.update("DELETE FROM user_roles");
+        userRepository.deleteAll();
+        userImportJobRepository.deleteAll();
+        roleRepository.save(Role.builder().name("USER").permissions(Set.of()).build());
+
+        passwordHashingService = new PasswordHashingService(new BCryptPasswordEncoder(4),
+                new SimpleMeterRegistry(), 2, 16, Duration.ofSeconds(10));
+        var userProvisioningService = new UserProvisioningService(userRepository, roleRepository,
+                passwordHashingService, Validation.buildDefaultValidatorFactory().getValidator(), jdbcTemplate,
+                transactionManager, 100, 2);
+        userImportService = new UserImportService(userImportJobRepository, new UserImportJobMapperImpl(),
+                userProvisioningService, objectMapper, importDir, 2, Duration.ofMinutes(10));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        userImportService.shutdown();
+        passwordHashingService.shutdown();
+        // the rows are committed, keep them out of the second-level cache other test contexts share
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    private static String row(String username, String password) {
+        return "{\"username\":\"" + username + "\",\"password\":\"" + password + "\"}";
+    }
+
+    private UserImportJob job(long processedLines, long errorsBytes, List<String> lines) throws IOException {
+        var now = Instant.now();
+        var job = userImportJobRepository.save(UserImportJob.builder()
+                .fileName("users.ndjson")
+                .status(ImportJobStatus.RUNNING)
+                .processedLines(processedLines)
+                .errorsBytes(errorsBytes)
+                .createdAt(now)
+                .updatedAt(now)
+                .build());
+        Files.write(importDir.resolve(job.getId() + ".ndjson"), lines);
+        return job;
+    }
+
+    // the job as left behind by another instance that last renewed its claim at updatedAt
+    private UserImportJob claimed(UserImportJob job, String owner, Instant updatedAt) {
+        job.setOwner(owner);
+        job.setUpdatedAt(updatedAt);
+        return userImportJobRepository.save(job);
+    }
+
+    private List<JsonNode> errors(String jobId) throws IOException {
+        List<JsonNode> errors = new ArrayList<>();
+        for (String line : Files.readAllLines(importDir.resolve(jobId + ".errors.ndjson")))
+            errors.add(objectMapper.readTree(line));
+        return errors;
+    }
+
+    @Test
+    public void run_writesRejectedRowsByLineNumber() throws IOException {
+        var job = job(0, 0, List.of(row("alice", "password1"), "not json", "", row("bobby", "short"),
+                row("alice", "password2")));
+
+        userImportService.run(job.getId());
+
+        var finished = userImportJobRepository.findById(job.getId()).orElseThrow();
+        assertEquals(ImportJobStatus.COMPLETED, finished.getStatus());
+        assertEquals(5, finished.getProcessedLines());
+        assertEquals(1, finished.getCreatedRows());
+        assertEquals(3, finished.getFailedRows());
+        assertEquals(Files.size(importDir.resolve(job.getId() + ".errors.ndjson")), finished.getErrorsBytes());
+
+        var errors = errors(job.getId());
+        assertEquals(List.of(2, 4, 5), errors.stream().map(error -> error.get("index").asInt()).toList());
+        assertEquals(ErrorCode.INVALID_KEY.getCode(), errors.get(0).get("code").asInt());
+        assertEquals(ErrorCode.PASSWORD_INVALID.getCode(), errors.get(1).get("code").asInt());
+        assertEquals(ErrorCode.USER_EXISTED.getCode(), errors.get(2).get("code").asInt());
+    }
+
+    @Test
+    public void run_resumesFromCheckpoint_andDropsRejectionsOfUncommittedChunk() throws IOException {
+        // lines 1-2 committed with one rejection; the process died after writing the rejection of line 3
+        String committed = "{\"index\":2,\"code\":" + ErrorCode.PASSWORD_INVALID.getCode() + "}\n";
+        var job = job(2, committed.length(), List.of(row("alice", "password1"), row("bobby", "short"),
+                row("carol", "short"), row("dave", "password4")));
+        Files.writeString(importDir.resolve(job.getId() + ".errors.ndjson"),
+                committed + "{\"index\":3,\"code\":0}\n", StandardCharsets.UTF_8);
+
+        userImportService.run(job.getId());
+
+        var finished = userImportJobRepository.findById(job.getId()).orElseThrow();
+        assertEquals(ImportJobStatus.COMPLETED, finished.getStatus());
+        assertEquals(4, finished.getProcessedLines());
+        assertEquals(1, finished.getCreatedRows());
+        assertEquals(1, finished.getFailedRows());
+        // lines before the checkpoint are not imported again
+        assertTrue(userRepository.findByUsername("alice").isEmpty());
+        assertTrue(userRepository.findByUsername("dave").isPresent());
+
+        var errors = errors(job.getId());
+        assertEquals(List.of(2, 3), errors.stream().map(error -> error.get("index").asInt()).toList());
+        assertEquals(ErrorCode.PASSWORD_INVALID.getCode(), errors.get(1).get("code").asInt());
+    }
+
+    @Test
+    public void run_inputFileMissing_failsJob() throws IOException {
+        var job = job(0, 0, List.of(row("alice", "password1")));
+        Files.delete(importDir.resolve(job.getId() + ".ndjson"));
+
+        userImportService.run(job.getId());
+
+        var failed = userImportJobRepository.findById(job.getId()).orElseThrow();
+        assertEquals(ImportJobStatus.FAILED, failed.getStatus());
+        assertEquals("Input file is missing", failed.getLastError());
+        assertNull(failed.getOwner());
+    }
+
+    @Test
+    public void run_claimedByLiveInstance_skipped() throws IOException {
+        var job = claimed(job(0, 0, List.of(row("alice", "password1"))), "other", Instant.now());
+
+        userImportService.run(job.getId());
+
+        var untouched = userImportJobRepository.findById(job.getId()).orElseThrow();
+        assertEquals(ImportJobStatus.RUNNING, untouched.getStatus());
+        assertEquals(0, untouched.getProcessedLines());
+        assertEquals("other", untouched.getOwner());
+        assertTrue(userRepository.findByUsername("alice").isEmpty());
+    }
+
+    @Test
+    public void run_claimOfDeadInstance_takenOver() throws IOException {
+        var job = claimed(job(0, 0, List.of(row("alice", "password1"))), "other",
+                Instant.now().minus(Duration.ofHours(1)));
+
+        userImportService.run(job.getId());
+
+        var finished = userImportJobRepository.findById(job.getId()).orElseThrow();
+        assertEquals(ImportJobStatus.COMPLETED, finished.getStatus());
+        assertEquals(1, finished.getCreatedRows());
+        assertNull(finished.getOwner());
+    }
+}
@@ -0,0 +1,207 @@
+package com.luv2code.IdentityService.service;
+
+import com.luv2code.IdentityService.dto.request.BulkUserCreationRequest;
+import com.luv2code.IdentityService.dto.request.UserCreationRequest;
+import com.luv2code.IdentityService.entity.Role;
+import com.luv2code.IdentityService.entity.User;
+import com.luv2code.IdentityService.exception.AppException;
+import com.luv2code.IdentityService.exception.ErrorCode;
+import com.luv2code.IdentityService.repository.RoleRepository;
+import com.luv2code.IdentityService.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:provisioning;MODE=MySQL;NON_KEYWORDS=USER",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class UserProvisioningServiceTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private PasswordHashingService passwordHashingService;
+
+    private UserProvisioningService userProvisioningService;
+
+    @BeforeEach
+    public void initData() {
+        roleRepository.save(Role.builder().name("USER").permissions(Set.of()).build());
+        userRepository.saveAndFlush(User.builder().username("existing").password("password").build());
+
+        passwordHashingService = new PasswordHashingService(new BCryptPasswordEncoder(4),
+                new SimpleMeterRegistry(), 2, 16, Duration.ofSeconds(10));
+        userProvisioningService = new UserProvisioningService(userRepository, roleRepository, passwordHashingService,
+                Validation.buildDefaultValidatorFactory().getValidator(), jdbcTemplate, transactionManager, 100, 2);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        passwordHashingService.shutdown();
+    }
+
+    private static UserCreationRequest request(String username, String password) {
+        return UserCreationRequest.builder()
+                .username(username)
+                .password(password)
+                .firstname("John")
+                .dob(LocalDate.of(1990, 1, 1))
+                .build();
+    }
+
+    @Test
+    public void createUsers_reportsEveryRowAndInsertsValidOnes() {
+        var response = userProvisioningService.createUsers(new BulkUserCreationRequest(List.of(
+                request("alice", "password1"),
+                request("existing", "password1"),
+                request("bobby", "short"),
+                request("alice", "password2"),
+                request("carol", "password3"))));
+
+        assertEquals(2, response.getCreated());
+        assertEquals(3, response.getFailed());
+
+        var results = response.getResults();
+        assertNotNull(results.get(0).getId());
+        assertEquals(ErrorCode.USER_EXISTED.getCode(), results.get(1).getCode());
+        assertEquals(ErrorCode.PASSWORD_INVALID.getCode(), results.get(2).getCode());
+        assertEquals("Password must be at least 7 characters", results.get(2).getMessage());
+        assertEquals(ErrorCode.USER_EXISTED.getCode(), results.get(3).getCode());
+        assertNotNull(results.get(4).getId());
+
+        entityManager.clear();
+        var carol = userRepository.findByUsername("carol").orElseThrow();
+        assertEquals(results.get(4).getId(), carol.getId().toString());
+        assertEquals(LocalDate.of(1990, 1, 1), carol.getDob());
+        assertTrue(new BCryptPasswordEncoder().matches("password3", carol.getPassword()));
+        assertEquals(Set.of("USER"), carol.getRoles().stream().map(Role::getName).collect(Collectors.toSet()));
+    }
+
+    @Test
+    public void createUsers_tooManyRows_rejected() {
+        List<UserCreationRequest> users = new ArrayList<>();
+        for (int i = 0; i < 101; i++)
+            users.add(request("user" + i, "password"));
+
+        var exception = assertThrows(AppException.class,
+                () -> userProvisioningService.createUsers(new BulkUserCreationRequest(users)));
+        assertEquals(ErrorCode.BATCH_TOO_LARGE, exception.getErrorCode());
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED) // the insert transaction must roll back on its own
+    public void createUsers_nonUsernameViolation_notRetried() {
+        var jdbc = spy(jdbcTemplate);
+        var service = new UserProvisioningService(userRepository, roleRepository, passwordHashingService,
+                Validation.buildDefaultValidatorFactory().getValidator(), jdbc, transactionManager, 100, 2);
+        var tooLong = request("bobby", "password2");
+        tooLong.setFirstname("x".repeat(300));
+
+        try {
+            assertThrows(DataIntegrityViolationException.class, () -> service.createUsers(
+                    new BulkUserCreationRequest(List.of(request("alice", "password1"), tooLong))));
+
+            // the re-query found no new username conflict, so the rows were not inserted a second time
+            verify(jdbc, times(1)).batchUpdate(eq(UserProvisioningService.INSERT_USER), anyList(), anyInt(), any());
+            assertTrue(userRepository.findByUsername("alice").isEmpty());
+        } finally {
+            userRepository.deleteAll();
+            roleRepository.deleteAll();
+            // the rows were committed, keep them out of the second-level cache other test contexts share
+            entityManagerFactory.getCache().evictAll();
+        }
+    }
+
+    @Test
+    public void createUsers_namesEqualUnderCollation_rejected() {
+        // MySQL's case- and accent-insensitive collation answers with the stored spelling
+        var users = mock(UserRepository.class, delegatesTo(userRepository));
+        doReturn(Set.of("existing")).when(users).findExistingUsernames(any());
+        var service = new UserProvisioningService(users, roleRepository, passwordHashingService,
+                Validation.buildDefaultValidatorFactory().getValidator(), jdbcTemplate, transactionManager, 100, 2);
+
+        var results = service.createUsers(new BulkUserCreationRequest(List.of(
+                request("EXISTING", "password1"),
+                request("john", "password2"),
+                request("JOHN", "password3")))).getResults();
+
+        assertEquals(ErrorCode.USER_EXISTED.getCode(), results.get(0).getCode());
+        assertNotNull(results.get(1).getId());
+        assertEquals(ErrorCode.USER_EXISTED.getCode(), results.get(2).getCode());
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED) // the insert transaction must roll back on its own
+    public void createUsers_usernameTakenConcurrently_retriedWithoutIt() {
+        // another request commits "bobby" between the up-front check and the insert
+        var racingHashingService = new PasswordHashingService(new BCryptPasswordEncoder(4),
+                new SimpleMeterRegistry(), 2, 16, Duration.ofSeconds(10)) {
+            @Override
+            public List<String> encodeAll(List<String> rawPasswords) {
+                userRepository.saveAndFlush(User.builder().username("bobby").password("password").build());
+                return super.encodeAll(rawPasswords);
+            }
+        };
+        var service = new UserProvisioningService(userRepository, roleRepository, racingHashingService,
+                Validation.buildDefaultValidatorFactory().getValidator(), jdbcTemplate, transactionManager, 100, 2);
+
+        try {
+            var results = service.createUsers(new BulkUserCreationRequest(List.of(
+                    request("alice", "password1"),
+                    request("bobby", "password2")))).getResults();
+
+            assertNotNull(results.get(0).getId());
+            assertEquals(ErrorCode.USER_EXISTED.getCode(), results.get(1).getCode());
+            assertTrue(userRepository.findByUsername("alice").isPresent());
+        } finally {
+            racingHashingService.shutdown();
+            jdbcTemplate.update("DELETE FROM user_roles");
+            userRepository.deleteAll();
+            roleRepository.deleteAll();
+            // the rows were committed, keep them out of the second-level cache other test contexts share
+            entityManagerFactory.getCache().evictAll();
+        }
+    }
+}
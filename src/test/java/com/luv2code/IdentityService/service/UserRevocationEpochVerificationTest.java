@@ -0,0 +1,81 @@
+package com.luv2code.IdentityService.service;
+
+import com.luv2code.IdentityService.dto.request.BatchIntrospectRequest;
+import com.luv2code.IdentityService.dto.response.IntrospectResponse;
+import com.luv2code.IdentityService.exception.AppException;
+import com.nimbusds.jose.JOSEException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.text.ParseException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+public class UserRevocationEpochVerificationTest {
+
+    private AuthenticationServiceFixture fixture;
+
+    @BeforeEach
+    public void setup() {
+        fixture = new AuthenticationServiceFixture();
+        when(fixture.invalidatedTokenRepository.findIdsByIdIn(any())).thenReturn(Set.of());
+    }
+
+    private String token(String username) throws JOSEException {
+        return fixture.createToken(username, Date.from(Instant.now().plus(1, ChronoUnit.HOURS)));
+    }
+
+    @Test
+    public void verifyToken_issuedBeforeEpoch_rejectedEvenWhenCached() throws JOSEException, ParseException {
+        String token = token("john");
+        fixture.authenticationService.verifyToken(token, false);
+
+        fixture.userRevocationEpochs.revoke(List.of("john"), Instant.now());
+
+        assertThrows(AppException.class, () -> fixture.authenticationService.verifyToken(token, false));
+        assertThrows(AppException.class, () -> fixture.authenticationService.verifyToken(token, true));
+    }
+
+    @Test
+    public void verifyToken_issuedAfterEpoch_accepted() throws JOSEException, ParseException {
+        fixture.userRevocationEpochs.revoke(List.of("john"), Instant.now().minus(10, ChronoUnit.SECONDS));
+
+        assertNotNull(fixture.authenticationService.verifyToken(token("john"), false));
+    }
+
+    @Test
+    public void verifyToken_otherUser_unaffected() throws JOSEException, ParseException {
+        fixture.userRevocationEpochs.revoke(List.of("john"), Instant.now());
+
+        assertNotNull(fixture.authenticationService.verifyToken(token("jane"), false));
+    }
+
+    @Test
+    public void revoke_neverMovesEpochBackwards() throws JOSEException {
+        String token = token("john");
+        fixture.userRevocationEpochs.revoke(List.of("john"), Instant.now());
+        fixture.userRevocationEpochs.revoke(List.of("john"), Instant.now().minus(1, ChronoUnit.HOURS));
+
+        assertThrows(AppException.class, () -> fixture.authenticationService.verifyToken(token, false));
+    }
+
+    @Test
+    public void introspectBatch_revokedUser_invalid() throws JOSEException {
+        String john = token("john");
+        String jane = token("jane");
+        fixture.authenticationService.introspect(new BatchIntrospectRequest(List.of(john)));
+
+        fixture.userRevocationEpochs.revoke(List.of("john"), Instant.now());
+
+        List<IntrospectResponse> responses = fixture.authenticationService.introspect(
+                new BatchIntrospectRequest(List.of(john, jane)));
+        assertEquals(List.of(false, true), responses.stream().map(IntrospectResponse::isValid).toList());
+    }
+}
@@ -30,6 +30,7 @@ import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
 import java.time.LocalDate;
 import java.util.Optional;
+import java.util.UUID;
 
 import static jdk.internal.org.objectweb.asm.util.CheckClassAdapter.verify;
 import static jdk.jfr.internal.jfc.model.Constraint.any;
@@ -76,7 +77,7 @@ public class UserServiceTest {
                 .build();
 
         userResponse = UserResponse.builder()
-                .id("ddf5423798122")
+                .id("0190a5c8-3f2e-7a41-9c3d-5e6f7a8b9c0d")
                 .username("john")
                 .firstname("John")
                 .lastname("Doe")
@@ -84,7 +85,7 @@ public class UserServiceTest {
                 .build();
 
         user = User.builder()
-                .id("ddf5423798122")
+                .id(UUID.fromString("0190a5c8-3f2e-7a41-9c3d-5e6f7a8b9c0d"))
                 .username("john")
                 .firstname("John")
                 .lastname("Doe")
@@ -120,7 +121,7 @@ public class UserServiceTest {
         Mockito.when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
         Mockito.when(userMapper.toUserResponse(user)).thenReturn(userResponse);
 
-        UserResponse result = userService.getUser(user.getId());
+        UserResponse result = userService.getUser(user.getId().toString());
 
         assertNotNull(result);
         assertEquals(userResponse, result);
@@ -131,7 +132,7 @@ public class UserServiceTest {
     public void getUser_nonExistingUserId_throwsException(){
         Mockito.when(userRepository.findById(user.getId())).thenReturn(Optional.empty());
 
-        assertThrows(AppException.class, () -> userService.getUser(user.getId()));
+        assertThrows(AppException.class, () -> userService.getUser(user.getId().toString()));
         verify(userRepository).findById(user.getId());
     }
 
@@ -139,7 +140,7 @@ public class UserServiceTest {
     public void deleteUser_existingUserId_success(){
         Mockito.when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
 
-        boolean result = userService.deleteUser(user.getId());
+        boolean result = userService.deleteUser(user.getId().toString());
 
         assertTrue(result);
         verify(userRepository).deleteById(user.getId());
@@ -149,7 +150,7 @@ public class UserServiceTest {
     public void deleteUser_nonExistingUserId_throwsException(){
         Mockito.when(userRepository.findById(user.getId())).thenReturn(Optional.empty());
 
-        assertThrows(AppException.class, () -> userService.deleteUser(user.getId()));
+        assertThrows(AppException.class, () -> userService.deleteUser(user.getId().toString()));
         verify(userRepository, never()).deleteById(user.getId());
     }
 
@@ -160,7 +161,7 @@ public class UserServiceTest {
         Mockito.when(userRepository.save(user)).thenReturn(user);
         Mockito.when(userMapper.toUserResponse(user)).thenReturn(userResponse);
 
-        UserResponse result = userService.updateUser(user.getId(), request);
+        UserResponse result = userService.updateUser(user.getId().toString(), request);
 
         assertNotNull(result);
         assertEquals(userResponse, result);
@@ -171,7 +172,7 @@ public class UserServiceTest {
     public void updateUser_nonExistingUserId_throwsException(){
         Mockito.when(userRepository.findById(user.getId())).thenReturn(Optional.empty());
 
-        assertThrows(AppException.class, () -> userService.updateUser(user.getId(), request));
+        assertThrows(AppException.class, () -> userService.updateUser(user.getId().toString(), request));
         verify(userRepository, never()).save(any(User.class));
     }
 
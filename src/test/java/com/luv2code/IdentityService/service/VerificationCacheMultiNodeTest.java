@@ -0,0 +1,104 @@
+package com.luv2code.IdentityService.service;
+
+import com.luv2code.IdentityService.dto.request.BatchIntrospectRequest;
+import com.luv2code.IdentityService.dto.request.LogoutRequest;
+import com.luv2code.IdentityService.dto.response.IntrospectResponse;
+import com.luv2code.IdentityService.entity.InvalidatedToken;
+import com.luv2code.IdentityService.exception.AppException;
+import com.nimbusds.jose.JOSEException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+/**
+ * Two nodes, each with its own verification cache and revocation filter, sharing one InvalidatedToken
+ * table: a token cached as valid on B must stop verifying there once B has polled A's logout.
+ */
+public class VerificationCacheMultiNodeTest {
+
+    // the shared InvalidatedToken table
+    private final Set<String> revoked = ConcurrentHashMap.newKeySet();
+
+    private AuthenticationServiceFixture nodeA;
+
+    private AuthenticationServiceFixture nodeB;
+
+    private String token;
+
+    @BeforeEach
+    public void setup() throws JOSEException {
+        nodeA = node();
+        nodeB = node();
+        token = nodeA.createToken("john", Date.from(Instant.now().plus(1, ChronoUnit.HOURS)));
+    }
+
+    private AuthenticationServiceFixture node() {
+        var fixture = new AuthenticationServiceFixture();
+        var repository = fixture.invalidatedTokenRepository;
+        when(repository.save(any())).thenAnswer(invocation -> {
+            InvalidatedToken invalidatedToken = invocation.getArgument(0);
+            revoked.add(invalidatedToken.getId());
+            return invalidatedToken;
+        });
+        when(repository.existsById(anyString())).thenAnswer(invocation -> revoked.contains(invocation.getArgument(0)));
+        when(repository.findIdsByIdIn(any())).thenAnswer(invocation -> invocation.<Collection<String>>getArgument(0)
+                .stream().filter(revoked::contains).collect(Collectors.toSet()));
+        when(repository.streamIdsByExpiryTimeAfter(any())).thenAnswer(invocation -> Set.copyOf(revoked).stream());
+        when(repository.findIdsByRevokedAtGreaterThanEqual(any())).thenAnswer(invocation -> List.copyOf(revoked));
+
+        var filter = fixture.revokedTokenFilter;
+        ReflectionTestUtils.setField(filter, "expectedInsertions", 1000L);
+        ReflectionTestUtils.setField(filter, "fpp", 0.001);
+        ReflectionTestUtils.setField(filter, "clockSkew", Duration.ofMinutes(1));
+        InvalidatedTokenPurgeService purgeService =
+                (InvalidatedTokenPurgeService) ReflectionTestUtils.getField(filter, "invalidatedTokenPurgeService");
+        when(purgeService.purgeCutoff()).thenReturn(Instant.now().minus(1, ChronoUnit.DAYS));
+        filter.load();
+        return fixture;
+    }
+
+    private List<Boolean> introspect(AuthenticationServiceFixture node) {
+        return node.authenticationService.introspect(new BatchIntrospectRequest(List.of(token))).stream()
+                .map(IntrospectResponse::isValid)
+                .toList();
+    }
+
+    @Test
+    public void verifyToken_revokedOnOtherNode_rejectedAfterRefresh() throws JOSEException, ParseException {
+        assertNotNull(nodeB.authenticationService.verifyToken(token, false));
+        assertTrue(nodeB.tokenVerificationCache.get(token).isValid());
+
+        nodeA.authenticationService.logout(new LogoutRequest(token));
+        nodeB.revokedTokenFilter.refresh();
+
+        assertThrows(AppException.class, () -> nodeB.authenticationService.verifyToken(token, false));
+        assertFalse(nodeB.tokenVerificationCache.get(token).isValid());
+    }
+
+    @Test
+    public void introspect_revokedOnOtherNode_rejectedAfterRefresh() throws ParseException, JOSEException {
+        assertEquals(List.of(true), introspect(nodeB));
+
+        nodeA.authenticationService.logout(new LogoutRequest(token));
+        nodeB.revokedTokenFilter.refresh();
+
+        assertEquals(List.of(false), introspect(nodeB));
+        assertFalse(nodeB.tokenVerificationCache.get(token).isValid());
+    }
+}
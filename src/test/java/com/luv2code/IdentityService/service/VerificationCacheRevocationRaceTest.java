@@ -0,0 +1,87 @@
+package com.luv2code.IdentityService.service;
+
+import com.luv2code.IdentityService.dto.request.BatchIntrospectRequest;
+import com.luv2code.IdentityService.dto.response.IntrospectResponse;
+import com.luv2code.IdentityService.exception.AppException;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jwt.SignedJWT;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.text.ParseException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * A logout that lands between a cache miss's revocation check and its putVerified: the miss still
+ * answers valid, but the entry it caches must not keep the token alive.
+ */
+public class VerificationCacheRevocationRaceTest {
+
+    private AuthenticationServiceFixture fixture;
+
+    private String token;
+
+    private String jti;
+
+    // set by the stubbed revocation check the first time it runs
+    private final AtomicBoolean revoked = new AtomicBoolean();
+
+    @BeforeEach
+    public void setup() throws JOSEException, ParseException {
+        fixture = new AuthenticationServiceFixture();
+        token = fixture.createToken("john", Date.from(Instant.now().plus(1, ChronoUnit.HOURS)));
+        jti = SignedJWT.parse(token).getJWTClaimsSet().getJWTID();
+    }
+
+    // what logout does once the InvalidatedToken row is saved
+    private void logout() {
+        revoked.set(true);
+        fixture.revokedTokenFilter.add(jti);
+        fixture.tokenVerificationCache.putRejected(token);
+    }
+
+    @Test
+    public void verifyToken_logoutDuringMiss_cachedEntryRejected() throws JOSEException, ParseException {
+        when(fixture.invalidatedTokenRepository.existsById(jti)).thenAnswer(invocation -> {
+            if (revoked.get())
+                return true;
+            logout();
+            return false;
+        });
+
+        assertNotNull(fixture.authenticationService.verifyToken(token, false));
+        assertNotNull(fixture.tokenVerificationCache.get(token));
+
+        assertThrows(AppException.class, () -> fixture.authenticationService.verifyToken(token, false));
+        assertFalse(fixture.tokenVerificationCache.get(token).isValid());
+    }
+
+    @Test
+    public void introspectBatch_logoutDuringMiss_cachedEntryRejected() {
+        when(fixture.invalidatedTokenRepository.findIdsByIdIn(any())).thenAnswer(invocation -> {
+            if (revoked.get())
+                return Set.of(jti);
+            logout();
+            return Set.of();
+        });
+
+        assertEquals(List.of(true), introspect());
+        assertEquals(List.of(false), introspect());
+        assertFalse(fixture.tokenVerificationCache.get(token).isValid());
+    }
+
+    private List<Boolean> introspect() {
+        return fixture.authenticationService.introspect(new BatchIntrospectRequest(List.of(token))).stream()
+                .map(IntrospectResponse::isValid)
+                .toList();
+    }
+}